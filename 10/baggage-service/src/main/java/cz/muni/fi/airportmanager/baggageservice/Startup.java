@@ -2,6 +2,7 @@ package cz.muni.fi.airportmanager.baggageservice;
 
 
 import cz.muni.fi.airportmanager.baggageservice.entity.User;
+import cz.muni.fi.airportmanager.baggageservice.security.CachingIdentityProvider;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
 import io.smallrye.common.vertx.VertxContext;
@@ -16,7 +17,7 @@ import org.hibernate.reactive.mutiny.Mutiny;
 public class Startup {
 
 
-    void onStart(@Observes StartupEvent event, Vertx vertx, Mutiny.SessionFactory factory) {
+    void onStart(@Observes StartupEvent event, Vertx vertx, Mutiny.SessionFactory factory, CachingIdentityProvider identityProvider) {
 
         // We need a duplicated vertx context for hibernate reactive
         Context context = VertxContext.getOrCreateDuplicatedContext(vertx);
@@ -32,6 +33,8 @@ public class Startup {
                                                 User.deleteAll().onItem().transformToUni(ignored ->
                                 User.add("passenger-service", "secret", "user")
                 ))
+                        // Drop verifications cached while the transaction was open, the bulk delete skips the entity callbacks
+                        .invoke(identityProvider::invalidateAll)
                 // We need to subscribe to the Uni to trigger the action
                         .subscribe().with(v -> {
                 });
@@ -12,6 +12,20 @@ public class Baggage extends PanacheEntity {
     public int weight;
     public Long passengerId;
     public BaggageStatus status;
+    /**
+     * Incremented on every state change, orders the state changes of one baggage
+     */
+    public long stateSequence;
+
+    /**
+     * Change the state of the baggage
+     *
+     * @param status new status
+     */
+    public void changeStatus(BaggageStatus status) {
+        this.status = status;
+        this.stateSequence++;
+    }
 
     public static Uni<Baggage> findBaggageById(Long id) {
         return findById(id);
@@ -1,5 +1,7 @@
 package cz.muni.fi.airportmanager.baggageservice.entity;
 
+import cz.muni.fi.airportmanager.baggageservice.security.CachingIdentityProvider;
+import io.quarkus.arc.Arc;
 import io.quarkus.elytron.security.common.BcryptUtil;
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
 import io.quarkus.security.jpa.Password;
@@ -8,6 +10,9 @@ import io.quarkus.security.jpa.UserDefinition;
 import io.quarkus.security.jpa.Username;
 import io.smallrye.mutiny.Uni;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.Table;
 
 @Entity
@@ -36,4 +41,16 @@ public class User extends PanacheEntity {
         user.role = role;
         return user.persistAndFlush();
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop cached credential verifications whenever a user is stored or removed.
+     * The callback runs before the transaction commits and bulk HQL statements bypass it,
+     * so code changing users also invalidates the cache once its transaction has committed.
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void invalidateCachedCredentials() {
+        Arc.container().instance(CachingIdentityProvider.class).get().invalidateAll();
+    }
+}
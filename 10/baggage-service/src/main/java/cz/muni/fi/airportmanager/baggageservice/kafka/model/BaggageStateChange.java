@@ -2,11 +2,22 @@ package cz.muni.fi.airportmanager.baggageservice.kafka.model;
 
 import cz.muni.fi.airportmanager.baggageservice.model.BaggageStatus;
 
+import java.util.UUID;
+
 public class BaggageStateChange {
 
+    /**
+     * Unique id of the event, consumers use it to drop redelivered events
+     */
+    public UUID eventId;
+    /**
+     * Position of the change among the state changes of the baggage
+     */
+    public long sequence;
     public Long baggageId;
     public Long passengerId;
     public BaggageStatus newStatus;
+    public int weight;
 
     public BaggageStateChange() {
     }
@@ -20,9 +31,12 @@ public class BaggageStateChange {
     @Override
     public String toString() {
         return "BaggageStateChange{" +
-                "baggageId=" + baggageId +
+                "eventId=" + eventId +
+                ", sequence=" + sequence +
+                ", baggageId=" + baggageId +
                 ", passengerId=" + passengerId +
                 ", newStatus=" + newStatus +
+                ", weight=" + weight +
                 '}';
     }
 }
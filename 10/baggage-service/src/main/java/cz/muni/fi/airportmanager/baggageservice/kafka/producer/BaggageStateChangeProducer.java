@@ -2,10 +2,13 @@ package cz.muni.fi.airportmanager.baggageservice.kafka.producer;
 
 import cz.muni.fi.airportmanager.baggageservice.entity.Baggage;
 import cz.muni.fi.airportmanager.baggageservice.kafka.model.BaggageStateChange;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 
+import java.util.UUID;
+
 @ApplicationScoped
 public class BaggageStateChangeProducer {
 
@@ -13,15 +16,19 @@ public class BaggageStateChangeProducer {
     Emitter<BaggageStateChange> emitter;
 
     /**
-     * Send baggage state change to Kafka
+     * Send baggage state change to Kafka. The record is keyed by the passenger id,
+     * so all changes of one passenger land in the same partition and are consumed in order.
      *
      * @param baggage baggage to send
      */
     public void send(Baggage baggage) {
         BaggageStateChange baggageStateChange = new BaggageStateChange();
+        baggageStateChange.eventId = UUID.randomUUID();
+        baggageStateChange.sequence = baggage.stateSequence;
         baggageStateChange.baggageId = baggage.id;
         baggageStateChange.passengerId = baggage.passengerId;
         baggageStateChange.newStatus = baggage.status;
-        emitter.send(baggageStateChange);
+        baggageStateChange.weight = baggage.weight;
+        emitter.send(KafkaRecord.of(baggage.passengerId, baggageStateChange));
     }
 }
@@ -0,0 +1,20 @@
+package cz.muni.fi.airportmanager.baggageservice.model;
+
+public class TokenDto {
+    /**
+     * Signed token, sent as a bearer token
+     */
+    public String token;
+    /**
+     * Expiration time of the token in seconds since the epoch
+     */
+    public long expiresAt;
+
+    public TokenDto() {
+    }
+
+    public TokenDto(String token, long expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,76 @@
+package cz.muni.fi.airportmanager.baggageservice.resources;
+
+import cz.muni.fi.airportmanager.baggageservice.model.TokenDto;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.jwt.build.Jwt;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * This class is a REST resource that will be hosted on /auth
+ */
+@Path("/auth")
+@Tag(name = "Auth", description = "Service token API")
+public class AuthResource {
+
+    @Inject
+    SecurityIdentity identity;
+
+    @ConfigProperty(name = "mp.jwt.verify.issuer")
+    String issuer;
+
+    @ConfigProperty(name = "auth.token.ttl", defaultValue = "PT5M")
+    Duration ttl;
+
+    /**
+     * Issue a short-lived signed token for the user authenticated with basic credentials. The token carries
+     * the roles of the user, so it can be used instead of the credentials until it expires.
+     * A token is never accepted here, otherwise a leaked token could be renewed forever.
+     *
+     * @return signed token and its expiration
+     */
+    @POST
+    @Path("/token")
+    @Produces(APPLICATION_JSON)
+    @Operation(summary = "Issue a service token")
+    @APIResponse(
+            responseCode = "200",
+            description = "Signed token",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = TokenDto.class, required = true)
+            )
+    )
+    @APIResponse(responseCode = "401", description = "Invalid credentials")
+    @RolesAllowed("user")
+    public Uni<RestResponse<TokenDto>> issueToken() {
+        if (identity.getPrincipal() instanceof JsonWebToken) {
+            return Uni.createFrom().item(RestResponse.status(Response.Status.UNAUTHORIZED));
+        }
+        var expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        var token = Jwt.issuer(issuer)
+                .upn(identity.getPrincipal().getName())
+                .groups(identity.getRoles())
+                .expiresAt(expiresAt)
+                .sign();
+        return Uni.createFrom().item(RestResponse.status(Response.Status.OK, new TokenDto(token, expiresAt)));
+    }
+}
@@ -26,6 +26,7 @@ import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.resteasy.reactive.RestResponse;
@@ -216,5 +217,28 @@ public class BaggageResource {
                 .onItem().transform(baggage -> RestResponse.status(Response.Status.OK, baggage));
     }
 
-}
+    /**
+     * Get baggage of several passengers at once
+     */
+    @POST
+    @Path("/passengers")
+    @Produces(APPLICATION_JSON)
+    @Consumes(APPLICATION_JSON)
+    @Operation(summary = "Get baggage of several passengers at once")
+    @APIResponse(
+            responseCode = "200",
+            description = "Baggage of passengers with given ids",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = Baggage.class, required = true),
+                    examples = @ExampleObject(name = "baggage", value = Examples.VALID_BAGGAGE_LIST)
+            )
+    )
+    @RolesAllowed("user")
+    public Uni<RestResponse<List<Baggage>>> getBaggageByPassengerIds(
+            @RequestBody(description = "Passenger ids", required = true) List<Long> passengerIds) {
+        return baggageService.getBaggageByPassengerIds(passengerIds == null ? List.of() : passengerIds)
+                .onItem().transform(baggage -> RestResponse.status(Response.Status.OK, baggage));
+    }
 
+}
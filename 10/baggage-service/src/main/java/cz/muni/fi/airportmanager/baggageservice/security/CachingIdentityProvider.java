@@ -0,0 +1,178 @@
+package cz.muni.fi.airportmanager.baggageservice.security;
+
+import cz.muni.fi.airportmanager.baggageservice.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.elytron.security.common.BcryptUtil;
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+import io.quarkus.security.runtime.QuarkusPrincipal;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies basic auth credentials against {@link User} rows and caches successful verifications,
+ * so repeated calls of the same client skip the database lookup and the slow bcrypt check.
+ * <p>
+ * Entries are keyed by an HMAC of the credentials with a key generated at startup, so neither the passwords
+ * nor hashes that could be attacked offline are kept in memory. Entries expire after a short TTL and
+ * the whole cache is dropped whenever a user is stored or removed.
+ * Takes precedence over the identity provider generated for {@link User}.
+ */
+@ApplicationScoped
+public class CachingIdentityProvider implements IdentityProvider<UsernamePasswordAuthenticationRequest> {
+
+    @Inject
+    Mutiny.SessionFactory sessionFactory;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "auth.cache.ttl", defaultValue = "PT1M")
+    Duration ttl;
+
+    @ConfigProperty(name = "auth.cache.max-size", defaultValue = "1000")
+    int maxSize;
+
+    private final Map<String, CachedIdentity> cache = new ConcurrentHashMap<>();
+    // Bumped on invalidation, so a verification that started before it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private SecretKey key;
+    private Counter hits;
+    private Counter misses;
+
+    private record CachedIdentity(SecurityIdentity identity, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        key = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        hits = Counter.builder("auth_cache_hits")
+                .description("Number of basic auth requests verified from the cache")
+                .register(registry);
+        misses = Counter.builder("auth_cache_misses")
+                .description("Number of basic auth requests verified against the database")
+                .register(registry);
+    }
+
+    @Override
+    public Class<UsernamePasswordAuthenticationRequest> getRequestType() {
+        return UsernamePasswordAuthenticationRequest.class;
+    }
+
+    @Override
+    public int priority() {
+        return 100;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(UsernamePasswordAuthenticationRequest request, AuthenticationRequestContext context) {
+        var username = request.getUsername();
+        var password = new String(request.getPassword().getPassword());
+        var cacheKey = cacheKey(username, password);
+        var cached = cache.get(cacheKey);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            hits.increment();
+            return Uni.createFrom().item(cached.identity());
+        }
+        misses.increment();
+        var startedIn = generation.get();
+        return findUser(username)
+                .onItem().transformToUni(user -> context.runBlocking(() -> {
+                    if (user == null || !BcryptUtil.matches(password, user.password)) {
+                        throw new AuthenticationFailedException();
+                    }
+                    var identity = QuarkusSecurityIdentity.builder()
+                            .setPrincipal(new QuarkusPrincipal(user.username))
+                            .addRoles(roles(user.role))
+                            .build();
+                    remember(cacheKey, identity, startedIn);
+                    return identity;
+                }));
+    }
+
+    /**
+     * Drop all cached verifications
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private void remember(String cacheKey, SecurityIdentity identity, long startedIn) {
+        if (generation.get() != startedIn) {
+            return;
+        }
+        if (cache.size() >= maxSize) {
+            var now = System.currentTimeMillis();
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+        cache.put(cacheKey, new CachedIdentity(identity, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    /**
+     * Look the user up in its own session on a new duplicated context, the request context is not safe for Hibernate
+     */
+    private Uni<User> findUser(String username) {
+        Context duplicated = VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext());
+        VertxContextSafetyToggle.setContextSafe(duplicated, true);
+        return Uni.createFrom().emitter(emitter -> duplicated.runOnContext(ignored ->
+                sessionFactory.withSession(session -> session
+                                .createQuery("from User where username = :username", User.class)
+                                .setParameter("username", username)
+                                .getSingleResultOrNull())
+                        .subscribe().with(emitter::complete, emitter::fail)));
+    }
+
+    private String cacheKey(String username, String password) {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) ':');
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static Set<String> roles(String role) {
+        if (role == null || role.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(role.split(",")).map(String::trim).filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -11,6 +11,7 @@ import io.smallrye.mutiny.unchecked.Unchecked;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.Collection;
 import java.util.List;
 
 @ApplicationScoped
@@ -78,7 +79,7 @@ public class BaggageService {
             if (baggage == null) {
                 return Uni.createFrom().failure(new IllegalArgumentException("Baggage with id " + id + " does not exist"));
             }
-            baggage.status = BaggageStatus.CLAIMED;
+            baggage.changeStatus(BaggageStatus.CLAIMED);
             baggageStateChangeProducer.send(baggage);
             return Baggage.persist(baggage).replaceWith(true);
         });
@@ -95,6 +96,20 @@ public class BaggageService {
         return Baggage.find("passengerId", passengerId).list();
     }
 
+    /**
+     * Get baggage of several passengers in one query
+     *
+     * @param passengerIds passenger ids
+     * @return list of baggage for passengers with given ids
+     */
+    @WithTransaction
+    public Uni<List<Baggage>> getBaggageByPassengerIds(Collection<Long> passengerIds) {
+        if (passengerIds.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return Baggage.list("passengerId in ?1", passengerIds);
+    }
+
     /**
      * Mark baggage as lost
      *
@@ -107,7 +122,7 @@ public class BaggageService {
             if (baggage == null) {
                 return Uni.createFrom().failure(new IllegalArgumentException("Baggage with id " + id + " does not exist"));
             }
-            baggage.status = BaggageStatus.LOST;
+            baggage.changeStatus(BaggageStatus.LOST);
             baggageStateChangeProducer.send(baggage);
             return Baggage.persist(baggage).replaceWith(true);
         });
@@ -0,0 +1,79 @@
+package cz.muni.fi.airportmanager.baggageservice.resources;
+
+import cz.muni.fi.airportmanager.baggageservice.service.BaggageService;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+class AuthResourceTest {
+
+    @InjectMock
+    BaggageService baggageService;
+
+    @Test
+    void shouldIssueTokenAcceptedByBaggageApi() {
+        Mockito.when(this.baggageService.getBaggageByPassengerIds(List.of(123L))).thenReturn(Uni.createFrom().item(List.of()));
+
+        String token = given().auth().preemptive().basic("passenger-service", "secret")
+                .when()
+                .post("/auth/token")
+                .then()
+                .statusCode(200)
+                .body("token", notNullValue())
+                .extract().path("token");
+
+        given().auth().oauth2(token)
+                .contentType("application/json")
+                .body(List.of(123L))
+                .when()
+                .post("/baggage/passengers")
+                .then()
+                .statusCode(200)
+                .body(is("[]"));
+    }
+
+    @Test
+    void shouldNotIssueTokenForWrongCredentials() {
+        given().auth().preemptive().basic("passenger-service", "wrong")
+                .when()
+                .post("/auth/token")
+                .then()
+                .statusCode(401);
+    }
+
+    @Test
+    void shouldNotRenewTokenWithToken() {
+        String token = given().auth().preemptive().basic("passenger-service", "secret")
+                .when()
+                .post("/auth/token")
+                .then()
+                .statusCode(200)
+                .extract().path("token");
+
+        given().auth().oauth2(token)
+                .when()
+                .post("/auth/token")
+                .then()
+                .statusCode(401);
+    }
+
+    @Test
+    void shouldRejectForgedToken() {
+        given().auth().oauth2("not.a.token")
+                .contentType("application/json")
+                .body(List.of(123L))
+                .when()
+                .post("/baggage/passengers")
+                .then()
+                .statusCode(401);
+    }
+}
@@ -140,6 +140,45 @@ class BaggageResourceTest {
                 .statusCode(404);
     }
 
+    @Test
+    void shouldGetBaggageOfSeveralPassengers() {
+        Baggage baggage = getBaggage();
+        Mockito.when(this.baggageService.getBaggageByPassengerIds(List.of(123L, 124L))).thenReturn(Uni.createFrom().item(List.of(baggage)));
+
+        given().auth().preemptive().basic("passenger-service", "secret")
+                .contentType("application/json")
+                .body(List.of(123L, 124L))
+                .when()
+                .post("/passengers")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].passengerId", equalTo(123));
+    }
+
+    @Test
+    void shouldRejectWrongPasswordAfterSuccessfulLogin() {
+        Mockito.when(this.baggageService.getBaggageByPassengerIds(List.of(123L))).thenReturn(Uni.createFrom().item(List.of()));
+
+        for (int i = 0; i < 2; i++) {
+            given().auth().preemptive().basic("passenger-service", "secret")
+                    .contentType("application/json")
+                    .body(List.of(123L))
+                    .when()
+                    .post("/passengers")
+                    .then()
+                    .statusCode(200);
+        }
+
+        given().auth().preemptive().basic("passenger-service", "wrong")
+                .contentType("application/json")
+                .body(List.of(123L))
+                .when()
+                .post("/passengers")
+                .then()
+                .statusCode(401);
+    }
+
     private static Baggage getBaggage() {
         var baggage = new Baggage();
         baggage.id = 1L;
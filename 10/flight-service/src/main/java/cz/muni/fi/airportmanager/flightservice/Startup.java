@@ -0,0 +1,45 @@
+package cz.muni.fi.airportmanager.flightservice;
+
+
+import cz.muni.fi.airportmanager.flightservice.entity.Flight;
+import cz.muni.fi.airportmanager.flightservice.service.FlightIntervalIndex;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
+import io.smallrye.common.vertx.VertxContext;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+@Singleton
+public class Startup {
+
+    @Inject
+    FlightIntervalIndex flightIntervalIndex;
+
+    /**
+     * Rebuild the in-memory flight index from the database
+     */
+    void onStart(@Observes StartupEvent event, Vertx vertx, Mutiny.SessionFactory factory) {
+
+        // We need a duplicated vertx context for hibernate reactive
+        Context context = VertxContext.getOrCreateDuplicatedContext(vertx);
+        // Don't forget to mark the context safe
+        VertxContextSafetyToggle.setContextSafe(context, true);
+        // Run the logic on the context created above
+        context.runOnContext(ignored ->
+                // We cannot use the Panache.withSession() and friends because the CDI request context is not active/propagated
+                factory.withSession(session -> session
+                                .createQuery("from Flight where arrivalTime >= :horizon", Flight.class)
+                                .setParameter("horizon", flightIntervalIndex.horizon())
+                                .getResultList())
+                        // We need to subscribe to the Uni to trigger the action
+                        .subscribe().with(
+                                flights -> flightIntervalIndex.load(flights.stream().map(Flight::toDto).toList()),
+                                failure -> Log.error("Failed to rebuild the flight index", failure)
+                        ));
+    }
+}
@@ -0,0 +1,69 @@
+package cz.muni.fi.airportmanager.flightservice.client;
+
+import cz.muni.fi.airportmanager.flightservice.entity.FlightCancellationOutbox;
+import cz.muni.fi.airportmanager.proto.FlightCancellationRequest;
+import cz.muni.fi.airportmanager.proto.FlightCancellationResponseStatus;
+import cz.muni.fi.airportmanager.proto.MutinyFlightCancellationGrpc;
+import io.quarkus.grpc.GrpcClient;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client delivering flight cancellations to the passenger service
+ */
+@ApplicationScoped
+public class FlightCancellationClient {
+
+    @GrpcClient("passenger-service")
+    MutinyFlightCancellationGrpc.MutinyFlightCancellationStub flightCancellationStub;
+
+    @Inject
+    @Named(RetryPolicies.PASSENGER_SERVICE)
+    RetryPolicy retryPolicy;
+
+    /**
+     * Send cancellations to the passenger service over a single stream. When the stream fails, the cancellations
+     * the passenger service has not confirmed yet are sent again over a new stream while the retry policy allows,
+     * the confirmed ones are already written on the passenger side and are not replayed.
+     *
+     * @param cancellations cancellations to deliver
+     * @return event ids of the cancellations the passenger service confirmed
+     */
+    @CircuitBreaker(
+            requestVolumeThreshold = 4,
+            failureRatio = 0.75,
+            delay = 1000,
+            successThreshold = 2
+    )
+    public Uni<Set<UUID>> cancelFlights(List<FlightCancellationOutbox> cancellations) {
+        Set<UUID> confirmed = ConcurrentHashMap.newKeySet();
+        return retryPolicy.execute(() -> {
+                    var requests = cancellations.stream()
+                            .filter(cancellation -> !confirmed.contains(cancellation.getEventId()))
+                            .map(cancellation -> FlightCancellationRequest.newBuilder()
+                                    .setId(Math.toIntExact(cancellation.getFlightId()))
+                                    .setReason(cancellation.getReason())
+                                    .setEventId(cancellation.getEventId().toString())
+                                    .build())
+                            .toList();
+                    if (requests.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    return flightCancellationStub.cancelFlights(Multi.createFrom().iterable(requests))
+                            .filter(response -> response.getStatus() == FlightCancellationResponseStatus.Cancelled)
+                            .onItem().invoke(response -> confirmed.add(UUID.fromString(response.getEventId())))
+                            .collect().last()
+                            .replaceWithVoid();
+                })
+                .replaceWith(() -> Set.copyOf(confirmed));
+    }
+}
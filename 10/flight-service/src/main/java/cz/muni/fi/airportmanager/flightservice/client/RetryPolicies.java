@@ -0,0 +1,42 @@
+package cz.muni.fi.airportmanager.flightservice.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+/**
+ * Retry policies of the services this service calls, one shared policy per target.
+ * The passenger service produces its policies the same way, only the targets and their config keys differ.
+ */
+@ApplicationScoped
+public class RetryPolicies {
+
+    public static final String PASSENGER_SERVICE = "passenger-service";
+
+    @ConfigProperty(name = "passenger-service.retry.max-retries", defaultValue = "2")
+    int maxRetries;
+
+    @ConfigProperty(name = "passenger-service.retry.base-delay", defaultValue = "PT0.1S")
+    Duration baseDelay;
+
+    @ConfigProperty(name = "passenger-service.retry.max-delay", defaultValue = "PT1S")
+    Duration maxDelay;
+
+    @ConfigProperty(name = "passenger-service.retry.budget-ratio", defaultValue = "0.1")
+    double budgetRatio;
+
+    @ConfigProperty(name = "passenger-service.retry.budget-max", defaultValue = "10")
+    double budgetMax;
+
+    @Produces
+    @Singleton
+    @Named(PASSENGER_SERVICE)
+    RetryPolicy passengerService(MeterRegistry registry) {
+        return new RetryPolicy(PASSENGER_SERVICE, registry, maxRetries, baseDelay, maxDelay, budgetRatio, budgetMax);
+    }
+}
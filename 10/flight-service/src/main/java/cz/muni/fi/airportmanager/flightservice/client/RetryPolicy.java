@@ -0,0 +1,163 @@
+package cz.muni.fi.airportmanager.flightservice.client;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Retries of calls to one target service.
+ * <p>
+ * A retry waits a random time between zero and an exponentially growing cap (full jitter), so callers that failed
+ * together do not retry together. Retries are paid from a token bucket: every call earns a fraction of a token
+ * and every retry costs a whole one, so retries stay below that fraction of the normal traffic and stop
+ * when the target keeps failing.
+ * <p>
+ * Only transient failures are retried: I/O and transport errors, timeouts, 5xx responses and gRPC
+ * {@code UNAVAILABLE} or {@code DEADLINE_EXCEEDED}. Any other failure, a 4xx response for example,
+ * would fail the same way again and is returned right away.
+ * <p>
+ * A retry resumes on the Vert.x context of the caller, so the caller can keep using its session afterwards.
+ * <p>
+ * The passenger service has an identical copy of this class, the services are built and deployed on their own
+ * and share no code (like their gRPC contract). Change both copies together.
+ */
+public class RetryPolicy {
+
+    private final int maxRetries;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final double budgetRatio;
+    private final double maxTokens;
+    private double tokens;
+
+    private final Counter calls;
+    private final Counter retries;
+    private final Counter budgetExhausted;
+
+    /**
+     * @param target      name of the target service, used as the metric tag
+     * @param registry    registry of the retry metrics
+     * @param maxRetries  maximum number of retries of one call
+     * @param baseDelay   cap of the first backoff, doubled with every retry
+     * @param maxDelay    maximum cap of the backoff
+     * @param budgetRatio tokens earned by every call, the maximum ratio of retries to calls
+     * @param maxTokens   size of the token bucket, the bucket starts full
+     */
+    public RetryPolicy(String target, MeterRegistry registry, int maxRetries, Duration baseDelay, Duration maxDelay,
+                       double budgetRatio, double maxTokens) {
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budgetRatio = budgetRatio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.calls = Counter.builder("retry_policy_calls")
+                .description("Number of calls guarded by the retry policy")
+                .tag("target", target)
+                .register(registry);
+        this.retries = Counter.builder("retry_policy_retries")
+                .description("Number of retried calls")
+                .tag("target", target)
+                .register(registry);
+        this.budgetExhausted = Counter.builder("retry_policy_budget_exhausted")
+                .description("Number of failed calls not retried because the retry budget was spent")
+                .tag("target", target)
+                .register(registry);
+        Gauge.builder("retry_policy_budget", this, RetryPolicy::availableTokens)
+                .description("Number of retries the retry budget allows right now")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    /**
+     * Run the call, retrying transient failures with jittered exponential backoff while the retry budget allows
+     *
+     * @param call supplier of the call, invoked once per attempt, on the caller's Vert.x context if there is one
+     * @return result of the first successful attempt, or the failure of the last one, emitted on the caller's context
+     */
+    public <T> Uni<T> execute(Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(() -> {
+            calls.increment();
+            deposit();
+            // The backoff timer fires on a Mutiny worker thread, so retries and the outcome are moved back
+            // to the caller's context
+            Context context = Vertx.currentContext();
+            Executor resume = context == null ? Runnable::run : task -> context.runOnContext(ignored -> task.run());
+            return attempt(call, 0, resume).emitOn(resume);
+        });
+    }
+
+    private <T> Uni<T> attempt(Supplier<Uni<T>> call, int retry, Executor resume) {
+        return Uni.createFrom().deferred(call)
+                .onFailure().recoverWithUni(failure -> {
+                    if (retry >= maxRetries || !isTransient(failure)) {
+                        return Uni.createFrom().failure(failure);
+                    }
+                    if (!withdraw()) {
+                        budgetExhausted.increment();
+                        return Uni.createFrom().failure(failure);
+                    }
+                    retries.increment();
+                    return Uni.createFrom().voidItem()
+                            .onItem().delayIt().by(backoff(retry))
+                            .emitOn(resume)
+                            .onItem().transformToUni(ignored -> attempt(call, retry + 1, resume));
+                });
+    }
+
+    /**
+     * Whether the failure is likely to go away when the call is repeated
+     */
+    static boolean isTransient(Throwable failure) {
+        var status = Status.fromThrowable(failure).getCode();
+        if (status != Status.Code.UNKNOWN) {
+            return status == Status.Code.UNAVAILABLE || status == Status.Code.DEADLINE_EXCEEDED;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebApplicationException webApplicationException) {
+                return webApplicationException.getResponse().getStatus() >= 500;
+            }
+            if (cause instanceof IOException || cause instanceof ProcessingException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Random delay between zero and the exponential cap of the given retry
+     */
+    Duration backoff(int retry) {
+        long cap = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(retry, 30));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    synchronized double availableTokens() {
+        return tokens;
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
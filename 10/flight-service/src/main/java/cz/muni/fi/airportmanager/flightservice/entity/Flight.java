@@ -6,14 +6,29 @@ import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
 import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "flight_departure_time_idx", columnList = "departureTime"),
+        @Index(name = "flight_arrival_time_idx", columnList = "arrivalTime"),
+        @Index(name = "flight_status_departure_time_idx", columnList = "status, departureTime"),
+        @Index(name = "flight_updated_at_idx", columnList = "updatedAt")
+})
 public class Flight {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_seq")
+    // Only pins the default allocation size, batch imports rely on pooled ids to avoid a sequence call per flight
+    @SequenceGenerator(name = "flight_seq", sequenceName = "Flight_SEQ", allocationSize = 50)
     private Long id;
     private String name;
     private String airportFrom;
@@ -22,6 +37,9 @@ public class Flight {
     private Date arrivalTime;
     private int capacity;
     private FlightStatus status;
+    @Version
+    private long version;
+    private Date updatedAt;
 
     public Long getId() {
         return id;
@@ -87,6 +105,24 @@ public class Flight {
         this.status = status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = new Date();
+    }
+
     public FlightDto toDto() {
         FlightDto flightDto = new FlightDto();
         flightDto.id = id;
@@ -97,6 +133,7 @@ public class Flight {
         flightDto.arrivalTime = arrivalTime;
         flightDto.capacity = capacity;
         flightDto.status = status;
+        flightDto.version = version;
         return flightDto;
     }
 
@@ -122,6 +159,7 @@ public class Flight {
         flight.arrivalTime = flightDto.arrivalTime;
         flight.capacity = flightDto.capacity;
         flight.status = flightDto.status;
+        flight.version = flightDto.version;
         return flight;
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package cz.muni.fi.airportmanager.flightservice.entity;
+
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Flight cancellation that still has to be delivered to the passenger service.
+ * It is written in the same transaction as the status change of the flight.
+ */
+@Entity
+@Table(indexes = @Index(name = "flight_cancellation_outbox_next_attempt_idx", columnList = "nextAttemptAt"))
+public class FlightCancellationOutbox {
+    @Id
+    @GeneratedValue
+    private Long id;
+    /**
+     * Sent with every delivery attempt, so the passenger service can drop a cancellation it has already stored
+     */
+    private UUID eventId;
+    private Long flightId;
+    private String reason;
+    private int attempts;
+    private Date nextAttemptAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public void setFlightId(Long flightId) {
+        this.flightId = flightId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public static FlightCancellationOutbox of(Long flightId, String reason) {
+        var entry = new FlightCancellationOutbox();
+        entry.eventId = UUID.randomUUID();
+        entry.flightId = flightId;
+        entry.reason = reason;
+        entry.nextAttemptAt = new Date();
+        return entry;
+    }
+}
@@ -0,0 +1,30 @@
+package cz.muni.fi.airportmanager.flightservice.kafka.model;
+
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+
+import java.util.Date;
+
+public class FlightStatusChange {
+
+    public Long flightId;
+    public FlightStatus newStatus;
+    public Date changedAt;
+
+    public FlightStatusChange() {
+    }
+
+    public FlightStatusChange(Long flightId, FlightStatus newStatus, Date changedAt) {
+        this.flightId = flightId;
+        this.newStatus = newStatus;
+        this.changedAt = changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightStatusChange{" +
+                "flightId=" + flightId +
+                ", newStatus=" + newStatus +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+}
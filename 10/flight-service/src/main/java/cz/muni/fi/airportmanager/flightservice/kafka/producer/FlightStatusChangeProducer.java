@@ -0,0 +1,55 @@
+package cz.muni.fi.airportmanager.flightservice.kafka.producer;
+
+import cz.muni.fi.airportmanager.flightservice.kafka.model.FlightStatusChange;
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.smallrye.reactive.messaging.MutinyEmitter;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+
+import java.util.Date;
+
+@ApplicationScoped
+public class FlightStatusChangeProducer {
+
+    @Channel("flight-status-change")
+    MutinyEmitter<FlightStatusChange> emitter;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Counter failures;
+
+    @PostConstruct
+    void registerMetrics() {
+        failures = Counter.builder("flight_status_change_send_failures")
+                .description("Number of flight status changes that could not be published to Kafka")
+                .register(registry);
+    }
+
+    /**
+     * Send flight status change to Kafka. The record is keyed by the flight id,
+     * so all changes of one flight land in the same partition and are consumed in order.
+     * The change is handed to the Kafka producer once. Its idempotent retries resend it without reordering
+     * the partition, a change that still fails is counted and logged.
+     *
+     * @param flightId  flight id
+     * @param newStatus new status of the flight
+     */
+    public void send(Long flightId, FlightStatus newStatus) {
+        var change = new FlightStatusChange(flightId, newStatus, new Date());
+        emitter.sendMessage(KafkaRecord.of(flightId, change))
+                .subscribe().with(
+                        ignored -> {
+                        },
+                        failure -> {
+                            failures.increment();
+                            Log.errorf(failure, "Failed to publish status change of flight %d to %s", flightId, newStatus);
+                        });
+    }
+}
@@ -0,0 +1,17 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+public enum CancellationStatus {
+    CANCELLED("CANCELLED"),
+    NOT_FOUND("NOT_FOUND"),
+    FAILED("FAILED");
+
+    private final String status;
+
+    CancellationStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,35 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+/**
+ * Result of cancelling a single flight of a batch
+ */
+public class FlightCancellationResult {
+    public long id;
+    public CancellationStatus status;
+
+    public FlightCancellationResult() {
+    }
+
+    public FlightCancellationResult(long id, CancellationStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FlightCancellationResult that = (FlightCancellationResult) o;
+
+        if (id != that.id) return false;
+        return status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (status != null ? status.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Change of the flights shown on the live departures board.
+ * A {@link FlightChangeType#SNAPSHOT} carries all flights in {@code flights},
+ * other changes carry the id of the changed flight and, unless it was deleted, the flight itself.
+ */
+public class FlightChangeEvent {
+    public FlightChangeType type;
+    public Long flightId;
+    public FlightDto flight;
+    public List<FlightDto> flights;
+
+    public FlightChangeEvent() {
+    }
+
+    public static FlightChangeEvent snapshot(List<FlightDto> flights) {
+        var event = new FlightChangeEvent();
+        event.type = FlightChangeType.SNAPSHOT;
+        event.flights = flights;
+        return event;
+    }
+
+    public static FlightChangeEvent of(FlightChangeType type, Long flightId, FlightDto flight) {
+        var event = new FlightChangeEvent();
+        event.type = type;
+        event.flightId = flightId;
+        event.flight = flight;
+        return event;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FlightChangeEvent that = (FlightChangeEvent) o;
+
+        if (type != that.type) return false;
+        if (!Objects.equals(flightId, that.flightId)) return false;
+        if (!Objects.equals(flight, that.flight)) return false;
+        return Objects.equals(flights, that.flights);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type != null ? type.hashCode() : 0;
+        result = 31 * result + (flightId != null ? flightId.hashCode() : 0);
+        result = 31 * result + (flight != null ? flight.hashCode() : 0);
+        result = 31 * result + (flights != null ? flights.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+public enum FlightChangeType {
+    SNAPSHOT("SNAPSHOT"),
+    CREATED("CREATED"),
+    UPDATED("UPDATED"),
+    DELETED("DELETED"),
+    CLEARED("CLEARED");
+
+    private final String type;
+
+    FlightChangeType(String type) {
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
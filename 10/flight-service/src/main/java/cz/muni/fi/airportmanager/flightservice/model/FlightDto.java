@@ -3,6 +3,7 @@ package cz.muni.fi.airportmanager.flightservice.model;
 
 public class FlightDto extends CreateFlightDto {
     public long id;
+    public long version;
 
     @Override
     public boolean equals(Object o) {
@@ -12,13 +13,15 @@ public class FlightDto extends CreateFlightDto {
 
         FlightDto flightDto = (FlightDto) o;
 
-        return id == flightDto.id;
+        if (id != flightDto.id) return false;
+        return version == flightDto.version;
     }
 
     @Override
     public int hashCode() {
         int result = super.hashCode();
         result = 31 * result + (int) (id ^ (id >>> 32));
+        result = 31 * result + (int) (version ^ (version >>> 32));
         return result;
     }
 }
\ No newline at end of file
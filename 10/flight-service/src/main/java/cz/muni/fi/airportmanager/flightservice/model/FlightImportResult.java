@@ -0,0 +1,63 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+import java.util.Objects;
+
+/**
+ * Result of importing a single flight of a batch
+ */
+public class FlightImportResult {
+    /**
+     * Position of the flight in the imported batch
+     */
+    public int index;
+    /**
+     * Id of the created flight, null if the flight was not created
+     */
+    public Long id;
+    public FlightImportStatus status;
+    public String error;
+
+    public FlightImportResult() {
+    }
+
+    public FlightImportResult(int index, Long id, FlightImportStatus status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static FlightImportResult created(int index, long id) {
+        return new FlightImportResult(index, id, FlightImportStatus.CREATED, null);
+    }
+
+    public static FlightImportResult invalid(int index, String error) {
+        return new FlightImportResult(index, null, FlightImportStatus.INVALID, error);
+    }
+
+    public static FlightImportResult failed(int index, String error) {
+        return new FlightImportResult(index, null, FlightImportStatus.FAILED, error);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FlightImportResult that = (FlightImportResult) o;
+
+        if (index != that.index) return false;
+        if (!Objects.equals(id, that.id)) return false;
+        if (status != that.status) return false;
+        return Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = index;
+        result = 31 * result + (id != null ? id.hashCode() : 0);
+        result = 31 * result + (status != null ? status.hashCode() : 0);
+        result = 31 * result + (error != null ? error.hashCode() : 0);
+        return result;
+    }
+}
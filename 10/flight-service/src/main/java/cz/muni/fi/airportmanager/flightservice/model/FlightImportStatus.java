@@ -0,0 +1,17 @@
+package cz.muni.fi.airportmanager.flightservice.model;
+
+public enum FlightImportStatus {
+    CREATED("CREATED"),
+    INVALID("INVALID"),
+    FAILED("FAILED");
+
+    private final String status;
+
+    FlightImportStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
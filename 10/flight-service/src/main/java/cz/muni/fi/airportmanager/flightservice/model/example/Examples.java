@@ -6,6 +6,7 @@ public class Examples {
     public static final String VALID_FLIGHT = """
             {
                 "id": 1,
+                "version": 0,
                 "name": "OK 123",
                 "airportFrom": "PRG",
                 "airportTo": "BTS",
@@ -32,6 +33,7 @@ public class Examples {
             [
                 {
                     "id": 1,
+                    "version": 0,
                     "name": "OK 123",
                     "airportFrom": "PRG",
                     "airportTo": "BTS",
@@ -42,6 +44,7 @@ public class Examples {
                 },
                 {
                     "id": 2,
+                    "version": 0,
                     "name": "OK 456",
                     "airportFrom": "BTS",
                     "airportTo": "PRG",
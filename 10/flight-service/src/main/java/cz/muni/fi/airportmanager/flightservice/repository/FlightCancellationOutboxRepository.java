@@ -0,0 +1,92 @@
+package cz.muni.fi.airportmanager.flightservice.repository;
+
+import cz.muni.fi.airportmanager.flightservice.entity.FlightCancellationOutbox;
+import io.quarkus.hibernate.reactive.panache.PanacheRepository;
+import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.AvailableHints;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@ApplicationScoped
+public class FlightCancellationOutboxRepository implements PanacheRepository<FlightCancellationOutbox> {
+
+    /**
+     * Add cancellations of flights to the outbox
+     *
+     * @param flightIds flight ids
+     * @param reason    reason for cancellation
+     */
+    @WithTransaction
+    public Uni<Void> enqueue(Collection<Long> flightIds, String reason) {
+        return persist(flightIds.stream().map(flightId -> FlightCancellationOutbox.of(flightId, reason)).toList());
+    }
+
+    /**
+     * Lease cancellations that are due for delivery. Leased cancellations are not due again until the lease
+     * expires, so a crashed delivery is retried later and other instances skip them in the meantime.
+     *
+     * @param now   current date
+     * @param limit maximum number of cancellations
+     * @param lease how long the cancellations are reserved for the caller
+     * @return leased cancellations, the oldest first
+     */
+    @WithTransaction
+    public Uni<List<FlightCancellationOutbox>> lease(Date now, int limit, Duration lease) {
+        return find("nextAttemptAt <= ?1", Sort.by("nextAttemptAt").and("id"), now)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                // for update skip locked, rows leased by another instance are skipped instead of waited for
+                .withHint(AvailableHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .page(Page.ofSize(limit))
+                .list()
+                .onItem().invoke(entries -> {
+                    var leasedUntil = new Date(now.getTime() + lease.toMillis());
+                    entries.forEach(entry -> entry.setNextAttemptAt(leasedUntil));
+                });
+    }
+
+    /**
+     * Remove delivered cancellations from the outbox
+     *
+     * @param ids outbox entry ids
+     * @return number of removed cancellations
+     */
+    @WithTransaction
+    public Uni<Long> deleteDelivered(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(0L);
+        }
+        return delete("id in ?1", ids);
+    }
+
+    /**
+     * Schedule another delivery attempt of cancellations with exponential backoff
+     *
+     * @param ids            outbox entry ids
+     * @param now            current date
+     * @param initialBackoff delay after the first failed attempt
+     * @param maxBackoff     maximum delay between attempts
+     */
+    @WithTransaction
+    public Uni<Void> reschedule(Collection<Long> ids, Date now, Duration initialBackoff, Duration maxBackoff) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return list("id in ?1", ids)
+                .onItem().invoke(entries -> entries.forEach(entry -> {
+                    var attempts = entry.getAttempts() + 1;
+                    var backoff = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+                    entry.setAttempts(attempts);
+                    entry.setNextAttemptAt(new Date(now.getTime() + Math.min(backoff, maxBackoff.toMillis())));
+                }))
+                .replaceWithVoid();
+    }
+}
@@ -4,46 +4,105 @@ import cz.muni.fi.airportmanager.flightservice.entity.Flight;
 import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
 import io.quarkus.hibernate.reactive.panache.PanacheRepository;
 import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
+import io.quarkus.hibernate.reactive.panache.PanacheQuery;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.StringJoiner;
 
 @ApplicationScoped
 public class FlightRepository implements PanacheRepository<Flight> {
 
     /**
-     * Find all future flights that are scheduled to depart in the future
+     * Hard cap on the number of flights returned by the time based queries
+     */
+    @ConfigProperty(name = "flight.query.max-results", defaultValue = "1000")
+    int maxResults;
+
+    /**
+     * Find a page of flights ordered by id, starting right after the given id (keyset pagination)
+     *
+     * @param afterId id of the last flight of the previous page (exclusive)
+     * @param limit   maximum number of flights in the page
+     * @return list of flights
+     */
+    @WithTransaction
+    public Uni<List<Flight>> findPageAfter(long afterId, int limit) {
+        return find("id > ?1", Sort.by("id"), afterId).page(Page.ofSize(limit)).list();
+    }
+
+    /**
+     * Find future flights that are scheduled to depart in the future, the nearest first
      *
      * @param currentDate current date
-     * @return list of all flights
+     * @return list of at most {@code flight.query.max-results} flights
      */
     @WithTransaction
     public Uni<List<Flight>> findFuture(Date currentDate) {
-        return find("departureTime >= ?1", currentDate).list();
+        return find("departureTime >= ?1", Sort.by("departureTime").and("id"), currentDate)
+                .page(Page.ofSize(maxResults)).list();
     }
 
     /**
-     * Find all ongoing flights that are ongoing (departed but not arrived yet)
+     * Find ongoing flights (departed but not arrived yet)
      *
      * @param currentDate current date
-     * @return list of  flights
+     * @return list of at most {@code flight.query.max-results} flights
      */
     @WithTransaction
     public Uni<List<Flight>> findOngoingFlights(Date currentDate) {
-        return find("departureTime <= ?1 and arrivalTime >= ?1", currentDate).list();
+        return find("departureTime <= ?1 and arrivalTime >= ?1", Sort.by("departureTime").and("id"), currentDate)
+                .page(Page.ofSize(maxResults)).list();
     }
 
     /**
-     * Find all past flights that are scheduled to depart in the past
+     * Find past flights that have already arrived, the most recent first
      *
      * @param currentDate current date
-     * @return list of  flights
+     * @return list of at most {@code flight.query.max-results} flights
      */
     @WithTransaction
     public Uni<List<Flight>> findPastFlights(Date currentDate) {
-        return find("arrivalTime < ?1", currentDate).list();
+        return find("arrivalTime < ?1", Sort.descending("arrivalTime").and("id", Sort.Direction.Descending), currentDate)
+                .page(Page.ofSize(maxResults)).list();
+    }
+
+    /**
+     * Find flights departing within the given window, ordered by departure time
+     *
+     * @param departedAfter  lower bound of the departure time (inclusive), null for no bound
+     * @param departedBefore upper bound of the departure time (exclusive), null for no bound
+     * @param status         flight status, null for any status
+     * @return list of at most {@code flight.query.max-results} flights
+     */
+    @WithTransaction
+    public Uni<List<Flight>> findInWindow(Date departedAfter, Date departedBefore, FlightStatus status) {
+        var conditions = new StringJoiner(" and ");
+        var parameters = new Parameters();
+        if (status != null) {
+            conditions.add("status = :status");
+            parameters.and("status", status);
+        }
+        if (departedAfter != null) {
+            conditions.add("departureTime >= :departedAfter");
+            parameters.and("departedAfter", departedAfter);
+        }
+        if (departedBefore != null) {
+            conditions.add("departureTime < :departedBefore");
+            parameters.and("departedBefore", departedBefore);
+        }
+        var sort = Sort.by("departureTime").and("id");
+        PanacheQuery<Flight> query = conditions.length() == 0
+                ? findAll(sort)
+                : find(conditions.toString(), sort, parameters);
+        return query.page(Page.ofSize(maxResults)).list();
     }
 
     /**
@@ -75,4 +134,40 @@ public class FlightRepository implements PanacheRepository<Flight> {
                     return persist(flight).replaceWithVoid();
                 });
     }
+
+    /**
+     * Change status of several flights at once
+     *
+     * @param flightIds flight ids
+     * @param newStatus new status
+     * @return ids of the flights that exist and were changed
+     */
+    @WithTransaction
+    public Uni<List<Long>> changeStatus(Collection<Long> flightIds, FlightStatus newStatus) {
+        if (flightIds.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return list("id in ?1", flightIds)
+                .onItem().transformToUni(flights -> {
+                    flights.forEach(flight -> flight.setStatus(newStatus));
+                    var changed = flights.stream().map(Flight::getId).toList();
+                    return persist(flights).replaceWith(changed);
+                });
+    }
+
+    /**
+     * Get a fingerprint of the whole flight table. It changes whenever a flight is created or updated
+     * (latest update time) or deleted (row count), so it can be probed instead of reading the table.
+     * Both parts are answered from indexes.
+     *
+     * @return fingerprint of the flight table
+     */
+    @WithTransaction
+    public Uni<String> findCollectionVersion() {
+        return getSession()
+                .chain(session -> session
+                        .createQuery("select count(f), max(f.updatedAt) from Flight f", Object[].class)
+                        .getSingleResult())
+                .onItem().transform(row -> row[0] + "-" + (row[1] == null ? 0 : ((Date) row[1]).getTime()));
+    }
 }
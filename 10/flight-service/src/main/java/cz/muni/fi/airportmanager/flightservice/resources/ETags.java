@@ -0,0 +1,39 @@
+package cz.muni.fi.airportmanager.flightservice.resources;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Helpers for conditional requests
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Check if an {@code If-None-Match} header matches the current entity tag.
+     * Weak comparison is used as required for {@code If-None-Match}.
+     *
+     * @param ifNoneMatch value of the header, may be null
+     * @param tag         current entity tag
+     * @return true if the client already has the current representation
+     */
+    static boolean matches(String ifNoneMatch, EntityTag tag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("\"" + tag.getValue() + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package cz.muni.fi.airportmanager.flightservice.resources;
+
+import cz.muni.fi.airportmanager.flightservice.service.FlightService;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Conditional GET for the flight list. The entity tag is derived from a cheap probe of the flight table
+ * and the query string, so an unchanged list is answered with 304 without reading or serializing flights.
+ */
+public class FlightCollectionETagFilter {
+
+    private static final String ETAG_PROPERTY = FlightCollectionETagFilter.class.getName() + ".etag";
+
+    @Inject
+    FlightService flightService;
+
+    @ServerRequestFilter
+    public Uni<Response> checkCollectionETag(ContainerRequestContext request, SimpleResourceInfo resourceInfo) {
+        if (!isFlightList(resourceInfo)) {
+            return Uni.createFrom().nullItem();
+        }
+        return flightService.getCollectionVersion()
+                .onItem().transform(version -> {
+                    var query = request.getUriInfo().getRequestUri().getRawQuery();
+                    var tag = new EntityTag(version + "-" + Integer.toHexString(query == null ? 0 : query.hashCode()));
+                    if (ETags.matches(request.getHeaderString(HttpHeaders.IF_NONE_MATCH), tag)) {
+                        return Response.notModified(tag).build();
+                    }
+                    request.setProperty(ETAG_PROPERTY, tag);
+                    return null;
+                });
+    }
+
+    @ServerResponseFilter
+    public void addCollectionETag(ContainerRequestContext request, ContainerResponseContext response) {
+        var tag = request.getProperty(ETAG_PROPERTY);
+        if (tag != null && response.getStatus() == Response.Status.OK.getStatusCode()) {
+            response.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+        }
+    }
+
+    private static boolean isFlightList(SimpleResourceInfo resourceInfo) {
+        return resourceInfo != null
+                && resourceInfo.getResourceClass() == FlightResource.class
+                && "list".equals(resourceInfo.getMethodName());
+    }
+}
@@ -0,0 +1,129 @@
+package cz.muni.fi.airportmanager.flightservice.resources;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.muni.fi.airportmanager.flightservice.model.CreateFlightDto;
+import jakarta.ws.rs.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads flights of an import batch one at a time, so the batch is never parsed into flights as a whole.
+ * The body itself is buffered by the server up to {@code quarkus.http.limits.max-body-size}.
+ * A flight that cannot be parsed is returned as null. The body is closed once all flights have been read.
+ */
+final class FlightImportReader {
+
+    private FlightImportReader() {
+    }
+
+    /**
+     * Read flights from a JSON array. An element that cannot be parsed is returned as null and ends the batch,
+     * the rest of the array cannot be located reliably.
+     *
+     * @param objectMapper mapper of the flights
+     * @param body         JSON array of flights
+     * @return flights in the order of the array
+     * @throws BadRequestException if the body is not a JSON array
+     */
+    static Iterator<CreateFlightDto> jsonArray(ObjectMapper objectMapper, InputStream body) {
+        JsonParser parser;
+        try {
+            parser = objectMapper.createParser(body);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Flights must be sent as a JSON array");
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Flights must be sent as a JSON array", e);
+        }
+        return new Iterator<>() {
+            private JsonToken next = advance();
+
+            @Override
+            public boolean hasNext() {
+                if (next != null && next != JsonToken.END_ARRAY) {
+                    return true;
+                }
+                closeQuietly(parser);
+                return false;
+            }
+
+            @Override
+            public CreateFlightDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    var flight = objectMapper.readValue(parser, CreateFlightDto.class);
+                    next = advance();
+                    return flight;
+                } catch (IOException e) {
+                    next = null;
+                    return null;
+                }
+            }
+
+            private JsonToken advance() {
+                try {
+                    return parser.nextToken();
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Read flights from newline delimited JSON. Blank lines are skipped, a line that cannot be parsed
+     * is returned as null.
+     *
+     * @param objectMapper mapper of the flights
+     * @param body         one flight per line
+     * @return flights in the order of the lines
+     */
+    static Iterator<CreateFlightDto> ndjson(ObjectMapper objectMapper, InputStream body) {
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        var flights = reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, CreateFlightDto.class);
+                    } catch (JsonProcessingException e) {
+                        return null;
+                    }
+                })
+                .iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (flights.hasNext()) {
+                    return true;
+                }
+                closeQuietly(reader);
+                return false;
+            }
+
+            @Override
+            public CreateFlightDto next() {
+                return flights.next();
+            }
+        };
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // the batch has been read already
+        }
+    }
+}
@@ -1,37 +1,59 @@
 package cz.muni.fi.airportmanager.flightservice.resources;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.muni.fi.airportmanager.flightservice.model.CreateFlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightCancellationResult;
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeEvent;
+import cz.muni.fi.airportmanager.flightservice.model.FlightImportResult;
 import cz.muni.fi.airportmanager.flightservice.model.example.Examples;
 import cz.muni.fi.airportmanager.flightservice.service.FlightService;
 import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.hibernate.StaleStateException;
+import org.jboss.resteasy.reactive.RestMediaType;
 import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+import static jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS;
 
 /**
  * This class is a REST resource that will be hosted on /flight
@@ -43,11 +65,21 @@ public class FlightResource {
     @Inject
     FlightService flightService;
 
+    @Inject
+    ObjectMapper objectMapper;
+
 
     /**
-     * Get list of all flights
+     * Get list of all flights. Without a limit, the whole table is streamed as a chunked JSON array
+     * page by page. With a limit, a single page after the given flight id is returned (keyset pagination).
+     * When a departure window or a status is given, flights departing in the window are returned instead.
      *
-     * @return list of all flights
+     * @param after          id of the last flight of the previous page (exclusive)
+     * @param limit          maximum number of flights in the page
+     * @param departedAfter  lower bound of the departure time (inclusive)
+     * @param departedBefore upper bound of the departure time (exclusive)
+     * @param status         flight status
+     * @return list of flights
      */
     @GET
     @Produces(APPLICATION_JSON)
@@ -61,8 +93,136 @@ public class FlightResource {
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT_LIST)
             )
     )
-    public Uni<RestResponse<List<FlightDto>>> list() {
-        return flightService.listAll()
+    @APIResponse(
+            responseCode = "400",
+            description = "Invalid limit"
+    )
+    public Multi<FlightDto> list(
+            @Parameter(name = "after", description = "Id of the last flight of the previous page") @QueryParam("after") Long after,
+            @Parameter(name = "limit", description = "Maximum number of flights in the page") @QueryParam("limit") Integer limit,
+            @Parameter(name = "departedAfter", description = "Lower bound of the departure time, e.g. 2021-01-01T12:00:00Z") @QueryParam("departedAfter") OffsetDateTime departedAfter,
+            @Parameter(name = "departedBefore", description = "Upper bound of the departure time, e.g. 2021-01-01T18:00:00Z") @QueryParam("departedBefore") OffsetDateTime departedBefore,
+            @Parameter(name = "status", description = "Flight status") @QueryParam("status") FlightStatus status) {
+        if (departedAfter != null || departedBefore != null || status != null) {
+            return flightService.listInWindow(toDate(departedAfter), toDate(departedBefore), status)
+                    .onItem().transformToMulti(flights -> Multi.createFrom().iterable(flights));
+        }
+        if (after == null && limit == null) {
+            return flightService.streamAll();
+        }
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return flightService.listPage(after == null ? 0 : after, limit == null ? Integer.MAX_VALUE : limit)
+                .onItem().transformToMulti(flights -> Multi.createFrom().iterable(flights));
+    }
+
+    /**
+     * Stream all flights as newline delimited JSON
+     *
+     * @return stream of all flights
+     */
+    @GET
+    @Path("/export")
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(APPLICATION_JSON)
+    @Operation(summary = "Stream all flights as newline delimited JSON")
+    @APIResponse(
+            responseCode = "200",
+            description = "Stream of all flights, one JSON object per line"
+    )
+    public Multi<FlightDto> export() {
+        return flightService.streamAll();
+    }
+
+    /**
+     * Live departures board. The first event is a snapshot of the flights, the following events are their changes.
+     *
+     * @return stream of flight changes
+     */
+    @GET
+    @Path("/stream")
+    @Produces(SERVER_SENT_EVENTS)
+    @RestStreamElementType(APPLICATION_JSON)
+    @Operation(summary = "Stream live changes of flights")
+    @APIResponse(
+            responseCode = "200",
+            description = "Snapshot of the flights followed by their changes",
+            content = @Content(
+                    mediaType = SERVER_SENT_EVENTS,
+                    schema = @Schema(implementation = FlightChangeEvent.class, required = true)
+            )
+    )
+    public Multi<FlightChangeEvent> stream() {
+        return flightService.streamChanges();
+    }
+
+    /**
+     * Get flights that departed but have not arrived yet
+     *
+     * @return list of ongoing flights
+     */
+    @GET
+    @Path("/ongoing")
+    @Produces(APPLICATION_JSON)
+    @Operation(summary = "Get flights that departed but have not arrived yet")
+    @APIResponse(
+            responseCode = "200",
+            description = "Ongoing flights ordered by departure time",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightDto.class, required = true),
+                    examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT_LIST)
+            )
+    )
+    public Uni<RestResponse<List<FlightDto>>> listOngoing() {
+        return flightService.listOngoing()
+                .onItem().transform(flights -> RestResponse.status(Response.Status.OK, flights));
+    }
+
+    /**
+     * Get flights that have not departed yet
+     *
+     * @return list of future flights
+     */
+    @GET
+    @Path("/future")
+    @Produces(APPLICATION_JSON)
+    @Operation(summary = "Get flights that have not departed yet")
+    @APIResponse(
+            responseCode = "200",
+            description = "Future flights ordered by departure time",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightDto.class, required = true),
+                    examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT_LIST)
+            )
+    )
+    public Uni<RestResponse<List<FlightDto>>> listFuture() {
+        return flightService.listFuture()
+                .onItem().transform(flights -> RestResponse.status(Response.Status.OK, flights));
+    }
+
+    /**
+     * Get recently arrived flights
+     *
+     * @return list of past flights
+     */
+    @GET
+    @Path("/past")
+    @Produces(APPLICATION_JSON)
+    @Operation(summary = "Get recently arrived flights")
+    @APIResponse(
+            responseCode = "200",
+            description = "Past flights, the most recent first",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightDto.class, required = true),
+                    examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT_LIST)
+            )
+    )
+    public Uni<RestResponse<List<FlightDto>>> listPast() {
+        return flightService.listPast()
                 .onItem().transform(flights -> RestResponse.status(Response.Status.OK, flights));
     }
 
@@ -85,6 +245,10 @@ public class FlightResource {
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT)
             )
     )
+    @APIResponse(
+            responseCode = "400",
+            description = "Invalid flight, e.g. it arrives before it departs"
+    )
     @APIResponse(
             responseCode = "409",
             description = "Conflict"
@@ -97,6 +261,74 @@ public class FlightResource {
     }
 
 
+    /**
+     * Import a batch of flights sent as a JSON array. The array is parsed element by element while the flights
+     * are persisted, so the flights of a large batch are not held in memory as a whole. The request body itself
+     * is buffered, so a batch must fit into {@code quarkus.http.limits.max-body-size}.
+     *
+     * @param body JSON array of flights to create
+     * @return result for every flight of the batch
+     */
+    @POST
+    @Path("/batch")
+    @Produces(APPLICATION_JSON)
+    @Consumes(APPLICATION_JSON)
+    @Operation(summary = "Import a batch of flights")
+    @RequestBody(content = @Content(
+            mediaType = APPLICATION_JSON,
+            schema = @Schema(implementation = CreateFlightDto.class, type = SchemaType.ARRAY)
+    ))
+    @APIResponse(
+            responseCode = "200",
+            description = "Result for every flight of the batch, in the order of the batch",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightImportResult.class, required = true)
+            )
+    )
+    @APIResponse(
+            responseCode = "413",
+            description = "Batch is larger than the maximum request body size"
+    )
+    @Counted(value = "flight_import", description = "How many flight batches have been imported")
+    public Uni<RestResponse<List<FlightImportResult>>> importBatch(InputStream body) {
+        return importFlights(FlightImportReader.jsonArray(objectMapper, body));
+    }
+
+    /**
+     * Import a batch of flights sent as newline delimited JSON. Lines that cannot be parsed are reported as invalid.
+     * The request body is buffered like the one of {@link #importBatch(InputStream)}.
+     *
+     * @param body one flight per line, read line by line
+     * @return result for every flight of the batch
+     */
+    @POST
+    @Path("/batch")
+    @Produces(APPLICATION_JSON)
+    @Consumes(RestMediaType.APPLICATION_NDJSON)
+    @Operation(summary = "Import a batch of flights sent as newline delimited JSON")
+    @APIResponse(
+            responseCode = "200",
+            description = "Result for every flight of the batch, in the order of the batch",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightImportResult.class, required = true)
+            )
+    )
+    @APIResponse(
+            responseCode = "413",
+            description = "Batch is larger than the maximum request body size"
+    )
+    @Counted(value = "flight_import", description = "How many flight batches have been imported")
+    public Uni<RestResponse<List<FlightImportResult>>> importBatchNdjson(InputStream body) {
+        return importFlights(FlightImportReader.ndjson(objectMapper, body));
+    }
+
+    private Uni<RestResponse<List<FlightImportResult>>> importFlights(Iterator<CreateFlightDto> flights) {
+        return flightService.importFlights(flights)
+                .onItem().transform(results -> RestResponse.status(Response.Status.OK, results));
+    }
+
     /**
      * Get flight by id
      *
@@ -116,13 +348,23 @@ public class FlightResource {
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_FLIGHT)
             )
     )
+    @APIResponse(
+            responseCode = "304",
+            description = "Flight has not changed since the version in If-None-Match"
+    )
     @APIResponse(
             responseCode = "404",
             description = "Flight with given id does not exist"
     )
-    public Uni<RestResponse<FlightDto>> get(long id) {
+    public Uni<RestResponse<FlightDto>> get(long id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         return flightService.getFlight(id)
-                .onItem().transform(flight -> RestResponse.status(Response.Status.OK, flight))
+                .onItem().transform(flight -> {
+                    var tag = new EntityTag(flight.id + "-" + flight.version);
+                    if (ETags.matches(ifNoneMatch, tag)) {
+                        return RestResponse.ResponseBuilder.<FlightDto>notModified(tag).build();
+                    }
+                    return RestResponse.ResponseBuilder.ok(flight).tag(tag).build();
+                })
                 .onFailure(IllegalArgumentException.class).recoverWithItem(RestResponse.status(Response.Status.NOT_FOUND));
     }
 
@@ -183,6 +425,10 @@ public class FlightResource {
             responseCode = "404",
             description = "Flight with given id does not exist"
     )
+    @APIResponse(
+            responseCode = "409",
+            description = "Flight was changed concurrently"
+    )
     @Timed(value = "flight_cancel", description = "A measure of how long it takes to cancel a flight")
     public Uni<RestResponse<Object>> cancel(@Parameter(name = "id", required = true) @PathParam("id") long id) {
         return flightService.cancelFlight(id)
@@ -191,8 +437,79 @@ public class FlightResource {
                         return RestResponse.status(Response.Status.OK);
                     }
                     return RestResponse.status(Response.Status.NOT_FOUND);
-                });
+                })
+                .onFailure(FlightResource::isConcurrentModification).recoverWithItem(RestResponse.status(Response.Status.CONFLICT));
     }
 
-}
+    /**
+     * Change status of the flight
+     *
+     * @param id     id of flight
+     * @param status new status
+     */
+    @PUT
+    @Path("/{id}/status/{status}")
+    @Operation(summary = "Change status of the flight")
+    @APIResponse(
+            responseCode = "200",
+            description = "Flight status changed"
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Flight with given id does not exist"
+    )
+    @APIResponse(
+            responseCode = "409",
+            description = "Flight was changed concurrently"
+    )
+    public Uni<RestResponse<Object>> changeStatus(@Parameter(name = "id", required = true) @PathParam("id") long id,
+                                                  @Parameter(name = "status", required = true) @PathParam("status") FlightStatus status) {
+        return flightService.changeStatus(id, status)
+                .onItem().transform(ignored -> RestResponse.status(Response.Status.OK))
+                .onFailure(IllegalArgumentException.class).recoverWithItem(RestResponse.status(Response.Status.NOT_FOUND))
+                .onFailure(FlightResource::isConcurrentModification).recoverWithItem(RestResponse.status(Response.Status.CONFLICT));
+    }
+
+    /**
+     * Cancel several flights at once
+     *
+     * @param ids ids of flights to cancel
+     * @return result for every flight
+     */
+    @PUT
+    @Path("/cancel")
+    @Produces(APPLICATION_JSON)
+    @Consumes(APPLICATION_JSON)
+    @Operation(summary = "Cancel several flights")
+    @APIResponse(
+            responseCode = "200",
+            description = "Result for every flight, in the order of the given ids",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = FlightCancellationResult.class, required = true)
+            )
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Missing list of flight ids"
+    )
+    @Timed(value = "flight_cancel_batch", description = "A measure of how long it takes to cancel a batch of flights")
+    public Uni<RestResponse<List<FlightCancellationResult>>> cancelAll(List<Long> ids) {
+        if (ids == null || ids.contains(null)) {
+            throw new BadRequestException("A list of flight ids is required");
+        }
+        return flightService.cancelFlights(ids)
+                .onItem().transform(results -> RestResponse.status(Response.Status.OK, results));
+    }
+
+    private static Date toDate(OffsetDateTime dateTime) {
+        return dateTime == null ? null : Date.from(dateTime.toInstant());
+    }
 
+    /**
+     * Check if the failure was caused by a concurrent update of the flight (optimistic locking on its version)
+     */
+    private static boolean isConcurrentModification(Throwable failure) {
+        return failure instanceof StaleStateException || failure instanceof OptimisticLockException;
+    }
+}
@@ -0,0 +1,81 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.client.FlightCancellationClient;
+import cz.muni.fi.airportmanager.flightservice.entity.FlightCancellationOutbox;
+import cz.muni.fi.airportmanager.flightservice.repository.FlightCancellationOutboxRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Delivers flight cancellations from the outbox to the passenger service.
+ * <p>
+ * A batch is leased in one short transaction, delivered without holding a database connection and then
+ * removed from the outbox, or rescheduled with exponential backoff if the passenger service did not confirm it.
+ * A cancellation can be delivered more than once, after a lost confirmation or an expired lease, so every one
+ * carries its outbox event id and the passenger service stores each event only once.
+ */
+@ApplicationScoped
+public class FlightCancellationRelay {
+
+    @Inject
+    FlightCancellationOutboxRepository outboxRepository;
+
+    @Inject
+    FlightCancellationClient flightCancellationClient;
+
+    @ConfigProperty(name = "flight.outbox.batch-size", defaultValue = "100")
+    int batchSize;
+
+    @ConfigProperty(name = "flight.outbox.lease", defaultValue = "PT30S")
+    Duration lease;
+
+    @ConfigProperty(name = "flight.outbox.initial-backoff", defaultValue = "PT1S")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "flight.outbox.max-backoff", defaultValue = "PT5M")
+    Duration maxBackoff;
+
+    @Scheduled(every = "{flight.outbox.relay-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> relay() {
+        return deliverBatch().replaceWithVoid();
+    }
+
+    /**
+     * Deliver one batch of due cancellations
+     *
+     * @return number of delivered cancellations
+     */
+    public Uni<Integer> deliverBatch() {
+        return Panache.withTransaction(() -> outboxRepository.lease(new Date(), batchSize, lease))
+                .onItem().transformToUni(cancellations -> {
+                    if (cancellations.isEmpty()) {
+                        return Uni.createFrom().item(0);
+                    }
+                    return flightCancellationClient.cancelFlights(cancellations)
+                            .onFailure().recoverWithItem(Set.of())
+                            .onItem().transformToUni(confirmed -> complete(cancellations, confirmed));
+                });
+    }
+
+    private Uni<Integer> complete(List<FlightCancellationOutbox> cancellations, Set<UUID> confirmed) {
+        var delivered = new ArrayList<Long>();
+        var failed = new ArrayList<Long>();
+        for (FlightCancellationOutbox cancellation : cancellations) {
+            (confirmed.contains(cancellation.getEventId()) ? delivered : failed).add(cancellation.getId());
+        }
+        return Panache.withTransaction(() -> outboxRepository.deleteDelivered(delivered)
+                        .call(() -> outboxRepository.reschedule(failed, new Date(), initialBackoff, maxBackoff)))
+                .replaceWith(delivered.size());
+    }
+}
@@ -0,0 +1,54 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * In-process fan-out of flight changes to live subscribers.
+ * <p>
+ * Every subscriber first receives a snapshot of the flight index and then only the changes published after it.
+ * Each subscriber has its own bounded buffer, a subscriber that falls behind by more than the buffer is
+ * terminated with a failure and is expected to reconnect, which gives it a fresh snapshot.
+ */
+@ApplicationScoped
+public class FlightChangeBroadcaster {
+
+    private final BroadcastProcessor<FlightChangeEvent> processor = BroadcastProcessor.create();
+
+    @Inject
+    FlightIntervalIndex flightIntervalIndex;
+
+    @ConfigProperty(name = "flight.stream.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    /**
+     * Publish a change to all subscribers
+     *
+     * @param event change of a flight
+     */
+    public synchronized void publish(FlightChangeEvent event) {
+        processor.onNext(event);
+    }
+
+    /**
+     * Subscribe to flight changes
+     *
+     * @return snapshot of the flights followed by their changes
+     */
+    public Multi<FlightChangeEvent> subscribe() {
+        return Multi.createFrom().<FlightChangeEvent>emitter(emitter -> {
+                    // Taking the snapshot and subscribing under the publishing lock guarantees no change is missed
+                    synchronized (this) {
+                        emitter.emit(FlightChangeEvent.snapshot(flightIntervalIndex.findAll()));
+                        var subscription = processor.subscribe().with(emitter::emit, emitter::fail, emitter::complete);
+                        emitter.onTermination(subscription::cancel);
+                    }
+                }, BackPressureStrategy.ERROR)
+                .onOverflow().buffer(bufferSize);
+    }
+}
@@ -0,0 +1,325 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory interval index of recent and upcoming flights.
+ * <p>
+ * Writes only touch a map of flights and mark the index dirty. The first read after a write rebuilds an
+ * immutable snapshot (flights sorted by departure, flights sorted by arrival and a centered interval tree),
+ * so ongoing, future and past queries are answered in O(log n + k) without a database round trip.
+ * Flights that arrived before the configured retention window are dropped on rebuild.
+ */
+@ApplicationScoped
+public class FlightIntervalIndex {
+
+    private static final Comparator<FlightDto> BY_DEPARTURE = Comparator.comparingLong(FlightIntervalIndex::departure);
+    private static final Comparator<FlightDto> BY_ARRIVAL = Comparator.comparingLong(FlightIntervalIndex::arrival);
+
+    private final Map<Long, FlightDto> flights = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    private volatile boolean dirty;
+
+    @ConfigProperty(name = "flight.index.retention", defaultValue = "PT24H")
+    Duration retention;
+
+    /**
+     * Add or replace a flight in the index. Flights without times or arriving before they depart are not indexed.
+     *
+     * @param flight flight to index
+     */
+    public void put(FlightDto flight) {
+        if (!indexable(flight)) {
+            remove(flight.id);
+            return;
+        }
+        flights.put(flight.id, flight);
+        dirty = true;
+    }
+
+    /**
+     * Remove a flight from the index
+     *
+     * @param id flight id
+     */
+    public void remove(long id) {
+        if (flights.remove(id) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Change the status of an indexed flight, bumping its version like the database does for a changed row
+     *
+     * @param id     flight id
+     * @param status new status
+     */
+    public void updateStatus(long id, FlightStatus status) {
+        flights.computeIfPresent(id, (ignored, flight) -> {
+            if (flight.status == status) {
+                return flight;
+            }
+            var updated = copy(flight);
+            updated.status = status;
+            updated.version = flight.version + 1;
+            return updated;
+        });
+        dirty = true;
+    }
+
+    /**
+     * Remove all flights from the index
+     */
+    public void clear() {
+        flights.clear();
+        dirty = true;
+    }
+
+    /**
+     * Load flights into the index, keeping flights that were indexed in the meantime
+     *
+     * @param loaded flights loaded from the database
+     */
+    public void load(Collection<FlightDto> loaded) {
+        for (FlightDto flight : loaded) {
+            if (indexable(flight)) {
+                flights.putIfAbsent(flight.id, flight);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Get an indexed flight
+     *
+     * @param id flight id
+     * @return flight with given id or null if it is not indexed
+     */
+    public FlightDto findById(long id) {
+        return flights.get(id);
+    }
+
+    /**
+     * Find flights that departed but have not arrived yet
+     *
+     * @param at point in time
+     * @return list of flights
+     */
+    public List<FlightDto> findOngoing(Date at) {
+        return current().ongoing(at.getTime());
+    }
+
+    /**
+     * Find flights departing at or after the given time, the nearest first
+     *
+     * @param at point in time
+     * @return list of flights
+     */
+    public List<FlightDto> findFuture(Date at) {
+        return current().future(at.getTime());
+    }
+
+    /**
+     * Find flights that arrived before the given time (within the retention window), the most recent first
+     *
+     * @param at point in time
+     * @return list of flights
+     */
+    public List<FlightDto> findPast(Date at) {
+        return current().past(at.getTime());
+    }
+
+    /**
+     * Get all indexed flights ordered by departure
+     *
+     * @return list of flights
+     */
+    public List<FlightDto> findAll() {
+        return List.of(current().byDeparture);
+    }
+
+    /**
+     * Get the time before which arrived flights are no longer kept in the index
+     *
+     * @return retention horizon
+     */
+    public Date horizon() {
+        return new Date(System.currentTimeMillis() - retention.toMillis());
+    }
+
+    private Snapshot current() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    dirty = false;
+                    long horizon = horizon().getTime();
+                    flights.values().removeIf(flight -> arrival(flight) < horizon);
+                    snapshot = Snapshot.build(new ArrayList<>(flights.values()));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * An inverted interval would never be split by the interval tree, so such flights are kept out of the index
+     */
+    private static boolean indexable(FlightDto flight) {
+        return flight.departureTime != null && flight.arrivalTime != null
+                && !flight.arrivalTime.before(flight.departureTime);
+    }
+
+    private static long departure(FlightDto flight) {
+        return flight.departureTime.getTime();
+    }
+
+    private static long arrival(FlightDto flight) {
+        return flight.arrivalTime.getTime();
+    }
+
+    private static FlightDto copy(FlightDto flight) {
+        var copy = new FlightDto();
+        copy.id = flight.id;
+        copy.name = flight.name;
+        copy.airportFrom = flight.airportFrom;
+        copy.airportTo = flight.airportTo;
+        copy.departureTime = flight.departureTime;
+        copy.arrivalTime = flight.arrivalTime;
+        copy.capacity = flight.capacity;
+        copy.status = flight.status;
+        copy.version = flight.version;
+        return copy;
+    }
+
+    private record Snapshot(FlightDto[] byDeparture, FlightDto[] byArrival, Node root) {
+
+        static Snapshot build(List<FlightDto> flights) {
+            var byDeparture = flights.toArray(FlightDto[]::new);
+            Arrays.sort(byDeparture, BY_DEPARTURE);
+            var byArrival = flights.toArray(FlightDto[]::new);
+            Arrays.sort(byArrival, BY_ARRIVAL);
+            return new Snapshot(byDeparture, byArrival, Node.build(Arrays.asList(byDeparture)));
+        }
+
+        List<FlightDto> future(long at) {
+            int from = firstIndex(byDeparture, at, true);
+            return List.of(Arrays.copyOfRange(byDeparture, from, byDeparture.length));
+        }
+
+        List<FlightDto> past(long at) {
+            int to = firstIndex(byArrival, at, false);
+            var result = new ArrayList<FlightDto>(to);
+            for (int i = to - 1; i >= 0; i--) {
+                result.add(byArrival[i]);
+            }
+            return result;
+        }
+
+        List<FlightDto> ongoing(long at) {
+            var result = new ArrayList<FlightDto>();
+            var node = root;
+            while (node != null) {
+                if (at < node.center) {
+                    for (FlightDto flight : node.byDeparture) {
+                        if (departure(flight) > at) {
+                            break;
+                        }
+                        result.add(flight);
+                    }
+                    node = node.left;
+                } else if (at > node.center) {
+                    for (FlightDto flight : node.byArrivalDescending) {
+                        if (arrival(flight) < at) {
+                            break;
+                        }
+                        result.add(flight);
+                    }
+                    node = node.right;
+                } else {
+                    result.addAll(Arrays.asList(node.byDeparture));
+                    node = null;
+                }
+            }
+            result.sort(BY_DEPARTURE);
+            return result;
+        }
+
+        /**
+         * Binary search for the first flight whose departure (or arrival) is not before the given time
+         */
+        private static int firstIndex(FlightDto[] sorted, long at, boolean byDeparture) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                long value = byDeparture ? departure(sorted[middle]) : arrival(sorted[middle]);
+                if (value < at) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Node of a centered interval tree. It holds the flights overlapping its center, flights entirely
+     * before the center are in the left subtree and flights entirely after it in the right subtree.
+     */
+    private static final class Node {
+        final long center;
+        final FlightDto[] byDeparture;
+        final FlightDto[] byArrivalDescending;
+        final Node left;
+        final Node right;
+
+        private Node(long center, FlightDto[] byDeparture, FlightDto[] byArrivalDescending, Node left, Node right) {
+            this.center = center;
+            this.byDeparture = byDeparture;
+            this.byArrivalDescending = byArrivalDescending;
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Build a subtree from flights sorted by departure
+         */
+        static Node build(List<FlightDto> sortedByDeparture) {
+            if (sortedByDeparture.isEmpty()) {
+                return null;
+            }
+            long center = departure(sortedByDeparture.get(sortedByDeparture.size() / 2));
+            var left = new ArrayList<FlightDto>();
+            var right = new ArrayList<FlightDto>();
+            var overlapping = new ArrayList<FlightDto>();
+            for (FlightDto flight : sortedByDeparture) {
+                if (arrival(flight) < center) {
+                    left.add(flight);
+                } else if (departure(flight) > center) {
+                    right.add(flight);
+                } else {
+                    overlapping.add(flight);
+                }
+            }
+            var byDeparture = overlapping.toArray(FlightDto[]::new);
+            var byArrivalDescending = overlapping.toArray(FlightDto[]::new);
+            Arrays.sort(byArrivalDescending, BY_ARRIVAL.reversed());
+            return new Node(center, byDeparture, byArrivalDescending, build(left), build(right));
+        }
+    }
+}
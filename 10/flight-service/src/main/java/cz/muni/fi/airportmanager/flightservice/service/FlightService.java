@@ -1,31 +1,72 @@
 package cz.muni.fi.airportmanager.flightservice.service;
 
 import cz.muni.fi.airportmanager.flightservice.entity.Flight;
+import cz.muni.fi.airportmanager.flightservice.kafka.producer.FlightStatusChangeProducer;
+import cz.muni.fi.airportmanager.flightservice.model.CancellationStatus;
 import cz.muni.fi.airportmanager.flightservice.model.CreateFlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightCancellationResult;
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeEvent;
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeType;
 import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightImportResult;
 import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import cz.muni.fi.airportmanager.flightservice.repository.FlightCancellationOutboxRepository;
 import cz.muni.fi.airportmanager.flightservice.repository.FlightRepository;
-import cz.muni.fi.airportmanager.proto.FlightCancellationRequest;
-import cz.muni.fi.airportmanager.proto.FlightCancellationResponseStatus;
-import cz.muni.fi.airportmanager.proto.MutinyFlightCancellationGrpc;
-import io.quarkus.grpc.GrpcClient;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.unchecked.Unchecked;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
 public class FlightService {
+    private static final String CANCELLATION_REASON = "Unknown";
+
     @Inject
     FlightRepository flightRepository;
 
 
-    @GrpcClient("passenger-service")
-    MutinyFlightCancellationGrpc.MutinyFlightCancellationStub flightCancellationStub;
+    @Inject
+    FlightIntervalIndex flightIntervalIndex;
+
+    @CacheName("flight")
+    Cache flightCache;
+
+    @Inject
+    FlightCancellationOutboxRepository outboxRepository;
+
+    @Inject
+    FlightStatusChangeProducer flightStatusChangeProducer;
+
+    @Inject
+    FlightChangeBroadcaster flightChangeBroadcaster;
+
+    @ConfigProperty(name = "flight.list.page-size", defaultValue = "500")
+    int pageSize;
+
+    @ConfigProperty(name = "flight.import.chunk-size", defaultValue = "1000")
+    int importChunkSize;
+
+    @ConfigProperty(name = "flight.cancel.chunk-size", defaultValue = "100")
+    int cancelChunkSize;
 
     /**
      * Get list of all flights
@@ -38,84 +79,346 @@ public class FlightService {
     }
 
     /**
-     * Get flight by id
+     * Get a page of flights ordered by id
+     *
+     * @param after id of the last flight of the previous page (exclusive), 0 for the first page
+     * @param limit maximum number of flights, capped by the configured page size
+     * @return page of flights
+     */
+    @WithTransaction
+    public Uni<List<FlightDto>> listPage(long after, int limit) {
+        return flightRepository.findPageAfter(after, Math.min(limit, pageSize))
+                .onItem().transform(flights -> flights.stream().map(Flight::toDto).toList());
+    }
+
+    /**
+     * Stream all flights page by page, so at most one page is held in memory at a time
+     *
+     * @return stream of all flights ordered by id
+     */
+    public Multi<FlightDto> streamAll() {
+        return Multi.createBy().repeating()
+                .uni(AtomicLong::new, cursor -> flightRepository.findPageAfter(cursor.get(), pageSize)
+                        .onItem().invoke(page -> {
+                            if (!page.isEmpty()) {
+                                cursor.set(page.get(page.size() - 1).getId());
+                            }
+                        }))
+                .whilst(page -> page.size() == pageSize)
+                .onItem().transformToIterable(page -> page)
+                .onItem().transform(Flight::toDto);
+    }
+
+    /**
+     * Get a fingerprint of all flights that changes whenever any flight is created, updated or deleted
+     *
+     * @return fingerprint of all flights
+     */
+    @WithTransaction
+    public Uni<String> getCollectionVersion() {
+        return flightRepository.findCollectionVersion();
+    }
+
+    /**
+     * Get flights departing within the given window
+     *
+     * @param departedAfter  lower bound of the departure time (inclusive), null for no bound
+     * @param departedBefore upper bound of the departure time (exclusive), null for no bound
+     * @param status         flight status, null for any status
+     * @return flights ordered by departure time, capped by the configured maximum
+     */
+    @WithTransaction
+    public Uni<List<FlightDto>> listInWindow(Date departedAfter, Date departedBefore, FlightStatus status) {
+        return flightRepository.findInWindow(departedAfter, departedBefore, status)
+                .onItem().transform(flights -> flights.stream().map(Flight::toDto).toList());
+    }
+
+    /**
+     * Get flights that departed but have not arrived yet, answered from the in-memory index
+     *
+     * @return ongoing flights ordered by departure time
+     */
+    public Uni<List<FlightDto>> listOngoing() {
+        return Uni.createFrom().item(() -> flightIntervalIndex.findOngoing(new Date()));
+    }
+
+    /**
+     * Get flights that have not departed yet, answered from the in-memory index
+     *
+     * @return future flights ordered by departure time
+     */
+    public Uni<List<FlightDto>> listFuture() {
+        return Uni.createFrom().item(() -> flightIntervalIndex.findFuture(new Date()));
+    }
+
+    /**
+     * Get recently arrived flights, answered from the in-memory index
+     *
+     * @return past flights within the index retention, the most recent first
+     */
+    public Uni<List<FlightDto>> listPast() {
+        return Uni.createFrom().item(() -> flightIntervalIndex.findPast(new Date()));
+    }
+
+    /**
+     * Get flight by id. Flights are served from a bounded cache, the database is only queried on a miss.
      *
      * @param id flight id
      * @return flight with given id
      * @throws IllegalArgumentException if flight with given id does not exist
      */
-    @WithTransaction
     public Uni<FlightDto> getFlight(Long id) {
-        return flightRepository.findById(id).onItem().transform(Unchecked.function(flight -> {
-            if (flight == null) {
-                throw new IllegalArgumentException("Flight with id " + id + " does not exist");
-            }
-            return flight.toDto();
-        }));
+        return flightCache.getAsync(id, key -> Panache.withSession(() -> flightRepository.findById(id))
+                .onItem().transform(Unchecked.function(flight -> {
+                    if (flight == null) {
+                        throw new IllegalArgumentException("Flight with id " + id + " does not exist");
+                    }
+                    return flight.toDto();
+                })));
     }
 
     /**
-     * Create a new flight
+     * Create a new flight, the flight is added to the index and announced once it is committed
      *
      * @param flight flight to create.
      * @return created flight
+     * @throws BadRequestException if the flight is invalid, e.g. it arrives before it departs
      */
-    @WithTransaction
     public Uni<FlightDto> createFlight(CreateFlightDto flight) {
-        return flightRepository.persist(Flight.fromDto(flight)).onItem().transform(Flight::toDto);
+        var error = validate(flight);
+        if (error != null) {
+            return Uni.createFrom().failure(new BadRequestException(error));
+        }
+        return Panache.withTransaction(() -> flightRepository.persist(Flight.fromDto(flight)))
+                .onItem().transform(Flight::toDto)
+                .onItem().invoke(this::onCreated);
     }
 
 
     /**
-     * Delete flight
+     * Import a batch of flights. Flights are read from the batch one chunk at a time and every chunk of valid flights
+     * is persisted in its own transaction before the next one is read, so only one chunk of flights is held in memory and
+     * a failing chunk does not roll back the chunks that were already written.
+     *
+     * @param flights flights to import, null entries stand for flights that could not be parsed
+     * @return result for every flight of the batch, in the order of the batch
+     */
+    public Uni<List<FlightImportResult>> importFlights(Iterator<CreateFlightDto> flights) {
+        var results = new ArrayList<FlightImportResult>();
+        var nextIndex = new AtomicInteger();
+        return Multi.createBy().repeating()
+                .supplier(() -> nextChunk(flights, nextIndex, results))
+                .until(Map::isEmpty)
+                .onItem().transformToUniAndConcatenate(this::importChunk)
+                .collect().in(() -> results, List::addAll)
+                .onItem().transform(all -> {
+                    all.sort(Comparator.comparingInt(result -> result.index));
+                    return all;
+                });
+    }
+
+    /**
+     * Read valid flights up to the chunk size, keyed by their index in the batch. Invalid flights are reported
+     * right away.
+     */
+    private Map<Integer, CreateFlightDto> nextChunk(Iterator<CreateFlightDto> flights, AtomicInteger nextIndex, List<FlightImportResult> results) {
+        var chunk = new LinkedHashMap<Integer, CreateFlightDto>();
+        while (chunk.size() < importChunkSize && flights.hasNext()) {
+            var index = nextIndex.getAndIncrement();
+            var flight = flights.next();
+            var error = validate(flight);
+            if (error != null) {
+                results.add(FlightImportResult.invalid(index, error));
+            } else {
+                chunk.put(index, flight);
+            }
+        }
+        return chunk;
+    }
+
+    private Uni<List<FlightImportResult>> importChunk(Map<Integer, CreateFlightDto> chunk) {
+        var indexes = List.copyOf(chunk.keySet());
+        var entities = chunk.values().stream().map(Flight::fromDto).toList();
+        return Panache.withTransaction(() -> flightRepository.persist(entities))
+                .onItem().transform(ignored -> {
+                    List<FlightImportResult> results = new ArrayList<>(indexes.size());
+                    for (int i = 0; i < indexes.size(); i++) {
+                        var created = entities.get(i).toDto();
+                        onCreated(created);
+                        results.add(FlightImportResult.created(indexes.get(i), created.id));
+                    }
+                    return results;
+                })
+                .onFailure().recoverWithItem(failure -> indexes.stream()
+                        .map(i -> FlightImportResult.failed(i, failure.getMessage()))
+                        .toList());
+    }
+
+    private static String validate(CreateFlightDto flight) {
+        if (flight == null) {
+            return "Malformed flight";
+        }
+        if (flight.name == null || flight.name.isBlank()) {
+            return "Name is required";
+        }
+        if (flight.departureTime == null || flight.arrivalTime == null) {
+            return "Departure and arrival time are required";
+        }
+        if (flight.arrivalTime.before(flight.departureTime)) {
+            return "Arrival time is before departure time";
+        }
+        if (flight.capacity < 0) {
+            return "Capacity must not be negative";
+        }
+        return null;
+    }
+
+    /**
+     * Delete flight, the cached flight is dropped and the deletion announced once it is committed
      *
      * @param id flight id
      * @return if the flight was deleted
      */
-    @WithTransaction
     public Uni<Boolean> deleteFlight(Long id) {
-        return flightRepository.deleteById(id);
+        return Panache.withTransaction(() -> flightRepository.deleteById(id))
+                .call(() -> flightCache.invalidate(id))
+                .onItem().invoke(wasDeleted -> {
+                    if (Boolean.TRUE.equals(wasDeleted)) {
+                        onDeleted(id);
+                    }
+                });
     }
 
     /**
-     * Delete all flights
+     * Delete all flights, the cached flights are dropped and the deletion announced once it is committed
      *
      * @return number of deleted flights
      */
-    @WithTransaction
     public Uni<Long> deleteAllFlights() {
-        return flightRepository.deleteAll();
+        return Panache.withTransaction(() -> flightRepository.deleteAll())
+                .call(() -> flightCache.invalidateAll())
+                .onItem().invoke(this::onAllDeleted);
+    }
+
+    /**
+     * Change status of the flight and publish the change once it is committed
+     *
+     * @param id     flight id
+     * @param status new status
+     * @return if the status was changed
+     * @throws IllegalArgumentException if flight with given id does not exist
+     */
+    public Uni<Boolean> changeStatus(Long id, FlightStatus status) {
+        if (status == FlightStatus.CANCELLED) {
+            return cancelFlight(id);
+        }
+        return Panache.withTransaction(() -> flightRepository.changeStatus(id, status))
+                .call(() -> flightCache.invalidate(id))
+                .onItem().invoke(() -> onStatusChanged(id, status))
+                .replaceWith(true);
     }
 
     /**
-     * Cancel flight
+     * Cancel flight. The status change and the cancellation for the passenger service are committed together,
+     * the cancellation is delivered later by {@link FlightCancellationRelay}.
      *
      * @param id flight id
      * @return if the flight was cancelled
+     * @throws IllegalArgumentException if flight with given id does not exist
      */
-    @WithTransaction
-    // TODO add CircuitBreaker with requestVolumeThreshold = 4, failureRatio = 0.75, delay = 1000, successThreshold = 2
-    @CircuitBreaker(
-            requestVolumeThreshold = 4,
-            failureRatio = 0.75,
-            delay = 1000,
-            successThreshold = 2
-    )
     public Uni<Boolean> cancelFlight(Long id) {
-        return flightRepository.changeStatus(id, FlightStatus.CANCELLED)
-                .onItem().transformToUni(ignored ->
-                        flightCancellationStub.cancelFlight(
-                                FlightCancellationRequest.newBuilder()
-                                        .setId(Math.toIntExact(id))
-                                        .setReason("Unknown")
-                                        .build()
-                        )
-                )
-                .onItem().transform(response -> {
-                    if (response.getStatus() != FlightCancellationResponseStatus.Cancelled) {
-                        throw new RuntimeException("Flight cancellation failed");
+        return Panache.withTransaction(() -> flightRepository.changeStatus(id, FlightStatus.CANCELLED)
+                        .call(() -> outboxRepository.enqueue(List.of(id), CANCELLATION_REASON)))
+                .call(() -> flightCache.invalidate(id))
+                .onItem().invoke(() -> onStatusChanged(id, FlightStatus.CANCELLED))
+                .replaceWith(true);
+    }
+
+    /**
+     * Cancel several flights. Status changes and cancellations for the passenger service are written in chunks,
+     * each chunk in one transaction, the cancellations are delivered later by {@link FlightCancellationRelay}.
+     *
+     * @param ids flight ids
+     * @return result for every distinct flight id, in the order of the given ids
+     */
+    public Uni<List<FlightCancellationResult>> cancelFlights(List<Long> ids) {
+        var distinct = List.copyOf(new LinkedHashSet<>(ids));
+        var chunks = new ArrayList<List<Long>>();
+        for (int i = 0; i < distinct.size(); i += cancelChunkSize) {
+            chunks.add(distinct.subList(i, Math.min(i + cancelChunkSize, distinct.size())));
+        }
+
+        return Multi.createFrom().iterable(chunks)
+                .onItem().transformToUniAndConcatenate(this::cancelChunk)
+                .collect().in(HashMap<Long, CancellationStatus>::new, Map::putAll)
+                .onItem().transform(statuses -> distinct.stream()
+                        .map(id -> new FlightCancellationResult(id, statuses.getOrDefault(id, CancellationStatus.NOT_FOUND)))
+                        .toList());
+    }
+
+    private Uni<Map<Long, CancellationStatus>> cancelChunk(List<Long> ids) {
+        return Panache.withTransaction(() -> flightRepository.changeStatus(ids, FlightStatus.CANCELLED)
+                        .call(cancelled -> outboxRepository.enqueue(cancelled, CANCELLATION_REASON)))
+                .call(cancelled -> Multi.createFrom().iterable(cancelled)
+                        .onItem().transformToUniAndConcatenate(flightCache::invalidate)
+                        .collect().last())
+                .onItem().transform(cancelled -> {
+                    Map<Long, CancellationStatus> statuses = new HashMap<>();
+                    for (Long id : cancelled) {
+                        onStatusChanged(id, FlightStatus.CANCELLED);
+                        statuses.put(id, CancellationStatus.CANCELLED);
                     }
-                    return true;
+                    return statuses;
+                })
+                .onFailure().recoverWithItem(() -> {
+                    Map<Long, CancellationStatus> statuses = new HashMap<>();
+                    ids.forEach(id -> statuses.put(id, CancellationStatus.FAILED));
+                    return statuses;
                 });
     }
+
+    /**
+     * Subscribe to live changes of flights
+     *
+     * @return snapshot of the flights followed by their changes
+     */
+    public Multi<FlightChangeEvent> streamChanges() {
+        return flightChangeBroadcaster.subscribe();
+    }
+
+    /**
+     * Propagate a committed flight to the in-memory index and to live subscribers
+     */
+    private void onCreated(FlightDto flight) {
+        flightIntervalIndex.put(flight);
+        flightChangeBroadcaster.publish(FlightChangeEvent.of(FlightChangeType.CREATED, flight.id, flight));
+    }
+
+    /**
+     * Propagate a committed status change to the in-memory index, to live subscribers and to Kafka
+     */
+    private void onStatusChanged(Long id, FlightStatus status) {
+        flightIntervalIndex.updateStatus(id, status);
+        var flight = flightIntervalIndex.findById(id);
+        if (flight != null) {
+            flightChangeBroadcaster.publish(FlightChangeEvent.of(FlightChangeType.UPDATED, id, flight));
+        }
+        flightStatusChangeProducer.send(id, status);
+    }
+
+    /**
+     * Propagate a committed deletion of a flight to the in-memory index and to live subscribers
+     */
+    private void onDeleted(Long id) {
+        flightIntervalIndex.remove(id);
+        flightChangeBroadcaster.publish(FlightChangeEvent.of(FlightChangeType.DELETED, id, null));
+    }
+
+    /**
+     * Propagate a committed deletion of all flights to the in-memory index and to live subscribers
+     */
+    private void onAllDeleted() {
+        flightIntervalIndex.clear();
+        flightChangeBroadcaster.publish(FlightChangeEvent.of(FlightChangeType.CLEARED, null, null));
+    }
 }
@@ -0,0 +1,40 @@
+package cz.muni.fi.airportmanager.flightservice.client;
+
+import cz.muni.fi.airportmanager.flightservice.repository.FlightCancellationOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.vertx.RunOnVertxContext;
+import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class RetryPolicyTest {
+
+    @Inject
+    FlightCancellationOutboxRepository outboxRepository;
+
+    @Test
+    @RunOnVertxContext
+    void shouldCommitAfterRetriedCall(UniAsserter asserter) {
+        var policy = new RetryPolicy("passenger-service", new SimpleMeterRegistry(), 1, Duration.ofMillis(5), Duration.ofMillis(5), 0.1, 10);
+        var attempts = new AtomicInteger();
+
+        // The transaction can only be opened if the retried call resumed on the test's Vert.x context
+        asserter.assertThat(
+                () -> policy.execute(() -> attempts.incrementAndGet() < 2
+                                ? Uni.createFrom().<Long>failure(new IOException("Connection reset"))
+                                : Uni.createFrom().item(1L))
+                        .chain(() -> Panache.withTransaction(() -> outboxRepository.count())),
+                count -> assertEquals(2, attempts.get())
+        );
+    }
+}
@@ -10,6 +10,8 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -55,6 +57,24 @@ class FlightRepositoryTest {
                 );
     }
 
+    @Test
+    @TestReactiveTransaction
+    void shouldGetPageOfFlightsAfterId(UniAsserter asserter) {
+        var first = createOngoingFlight();
+        var second = createOngoingFlight();
+
+        asserter.execute(this.flightRepository::deleteAll)
+                .execute(() -> this.flightRepository.persist(first))
+                .execute(() -> this.flightRepository.persist(second))
+                .assertThat(
+                        () -> this.flightRepository.findPageAfter(first.getId(), 10),
+                        flights -> {
+                            assertEquals(1, flights.size());
+                            assertEquals(second.getId(), flights.get(0).getId());
+                        }
+                );
+    }
+
     @Test
     @TestReactiveTransaction
     void shouldGetFutureFlights(UniAsserter asserter) {
@@ -99,6 +119,27 @@ class FlightRepositoryTest {
                 );
     }
 
+    @Test
+    @TestReactiveTransaction
+    void shouldGetFlightsInDepartureWindow(UniAsserter asserter) {
+        var inWindow = createOngoingFlight();
+        var outOfWindow = createOngoingFlight();
+        outOfWindow.setDepartureTime(Date.from(java.time.Instant.now().plusSeconds(1000 * 60)));
+        var windowStart = Date.from(java.time.Instant.now().minus(Duration.ofDays(1000)));
+        var windowEnd = new Date();
+
+        asserter.execute(this.flightRepository::deleteAll)
+                .execute(() -> this.flightRepository.persist(inWindow))
+                .execute(() -> this.flightRepository.persist(outOfWindow))
+                .assertThat(
+                        () -> this.flightRepository.findInWindow(windowStart, windowEnd, FlightStatus.ACTIVE),
+                        flights -> {
+                            assertEquals(1, flights.size());
+                            assertEquals(inWindow.getId(), flights.get(0).getId());
+                        }
+                );
+    }
+
     @Test
     @TestReactiveTransaction
     void shouldFindFlightsByStatus(UniAsserter asserter) {
@@ -142,4 +183,43 @@ class FlightRepositoryTest {
                         }
                 );
     }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldChangeStatusOfSeveralFlights(UniAsserter asserter) {
+        var first = createOngoingFlight();
+        var second = createOngoingFlight();
+
+        asserter.execute(this.flightRepository::deleteAll)
+                .execute(() -> this.flightRepository.persist(List.of(first, second)))
+                .assertThat(
+                        () -> this.flightRepository.changeStatus(List.of(first.getId(), second.getId(), -1L), FlightStatus.CANCELLED),
+                        changed -> assertEquals(Set.of(first.getId(), second.getId()), Set.copyOf(changed))
+                )
+                .assertThat(
+                        () -> this.flightRepository.findById(second.getId()),
+                        found -> assertEquals(FlightStatus.CANCELLED, found.getStatus())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldChangeCollectionVersionWhenFlightChanges(UniAsserter asserter) {
+        var flight = createOngoingFlight();
+
+        asserter.execute(this.flightRepository::deleteAll)
+                .assertEquals(this.flightRepository::findCollectionVersion, "0-0")
+                .execute(() -> this.flightRepository.persist(flight))
+                .execute(() -> this.flightRepository.flush())
+                .assertThat(
+                        this.flightRepository::findCollectionVersion,
+                        version -> assertEquals("1-" + flight.getUpdatedAt().getTime(), version)
+                )
+                .execute(() -> this.flightRepository.changeStatus(flight.getId(), FlightStatus.DELAYED))
+                .execute(() -> this.flightRepository.flush())
+                .assertThat(
+                        this.flightRepository::findCollectionVersion,
+                        version -> assertEquals("1-" + flight.getUpdatedAt().getTime(), version)
+                );
+    }
 }
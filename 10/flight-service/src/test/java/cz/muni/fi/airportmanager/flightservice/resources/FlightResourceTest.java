@@ -1,23 +1,35 @@
 package cz.muni.fi.airportmanager.flightservice.resources;
 
 
+import cz.muni.fi.airportmanager.flightservice.model.CancellationStatus;
 import cz.muni.fi.airportmanager.flightservice.model.CreateFlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightCancellationResult;
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeEvent;
 import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightImportResult;
 import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
 import cz.muni.fi.airportmanager.flightservice.service.FlightService;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
 import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 
 @QuarkusTest
@@ -27,9 +39,14 @@ class FlightResourceTest {
     @InjectMock
     FlightService flightService;
 
+    @BeforeEach
+    void setUp() {
+        Mockito.when(this.flightService.getCollectionVersion()).thenReturn(Uni.createFrom().item("1-1000"));
+    }
+
     @Test
     void shouldGetEmptyListOfFlights() {
-        Mockito.when(this.flightService.listAll()).thenReturn(Uni.createFrom().item(List.of()));
+        Mockito.when(this.flightService.streamAll()).thenReturn(Multi.createFrom().empty());
 
         given().when()
                 .get()
@@ -40,7 +57,7 @@ class FlightResourceTest {
 
     @Test
     void shouldGetListOfFlights() {
-        Mockito.when(this.flightService.listAll()).thenReturn(Uni.createFrom().item(List.of(getFlightDto())));
+        Mockito.when(this.flightService.streamAll()).thenReturn(Multi.createFrom().items(getFlightDto()));
 
         given().when()
                 .get()
@@ -49,6 +66,67 @@ class FlightResourceTest {
                 .body("size()", is(1));
     }
 
+    @Test
+    void shouldGetPageOfFlights() {
+        Mockito.when(this.flightService.listPage(1L, 10)).thenReturn(Uni.createFrom().item(List.of(getFlightDto())));
+
+        given().when()
+                .queryParam("after", 1)
+                .queryParam("limit", 10)
+                .get()
+                .then()
+                .statusCode(200)
+                .body("size()", is(1));
+    }
+
+    @Test
+    void shouldGetFlightsInDepartureWindow() {
+        Mockito.when(this.flightService.listInWindow(Mockito.any(Date.class), Mockito.any(Date.class), Mockito.eq(FlightStatus.ACTIVE)))
+                .thenReturn(Uni.createFrom().item(List.of(getFlightDto())));
+
+        given().when()
+                .queryParam("departedAfter", "2021-01-01T12:00:00Z")
+                .queryParam("departedBefore", "2021-01-01T18:00:00Z")
+                .queryParam("status", "ACTIVE")
+                .get()
+                .then()
+                .statusCode(200)
+                .body("size()", is(1));
+    }
+
+    @Test
+    void shouldGetOngoingFlights() {
+        Mockito.when(this.flightService.listOngoing()).thenReturn(Uni.createFrom().item(List.of(getFlightDto())));
+
+        given().when()
+                .get("/ongoing")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1));
+    }
+
+    @Test
+    void shouldStreamFlightChanges() {
+        Mockito.when(this.flightService.streamChanges())
+                .thenReturn(Multi.createFrom().items(FlightChangeEvent.snapshot(List.of(getFlightDto()))));
+
+        given().when()
+                .get("/stream")
+                .then()
+                .statusCode(200)
+                .contentType("text/event-stream")
+                .body(containsString("SNAPSHOT"));
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        given().when()
+                .queryParam("limit", 0)
+                .get()
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void shouldCreateFlight() {
         FlightDto responseFlight = getFlightDto();
@@ -65,6 +143,72 @@ class FlightResourceTest {
                 .body("id", equalTo((int) responseFlight.id));
     }
 
+    @Test
+    void shouldRejectInvalidFlight() {
+        Mockito.when(this.flightService.createFlight(Mockito.any(CreateFlightDto.class)))
+                .thenReturn(Uni.createFrom().failure(new BadRequestException("Arrival time is before departure time")));
+
+        given().contentType("application/json")
+                .body(getFlightDto())
+                .when()
+                .post()
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void shouldImportBatchOfFlights() {
+        var imported = new ArrayList<CreateFlightDto>();
+        Mockito.when(this.flightService.importFlights(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<CreateFlightDto> flights = invocation.getArgument(0);
+            flights.forEachRemaining(imported::add);
+            return Uni.createFrom().item(List.of(FlightImportResult.created(0, 1L)));
+        });
+
+        given().contentType("application/json")
+                .body(List.of(getFlightDto()))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].status", equalTo("CREATED"));
+
+        assertEquals(1, imported.size());
+        assertEquals(getFlightDto().name, imported.get(0).name);
+    }
+
+    @Test
+    void shouldRejectBatchThatIsNotAnArray() {
+        given().contentType("application/json")
+                .body(getFlightDto())
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void shouldImportNdjsonBatchOfFlights() {
+        var imported = new ArrayList<CreateFlightDto>();
+        Mockito.when(this.flightService.importFlights(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<CreateFlightDto> flights = invocation.getArgument(0);
+            flights.forEachRemaining(imported::add);
+            return Uni.createFrom().item(List.of(FlightImportResult.created(0, 1L), FlightImportResult.invalid(1, "Malformed flight")));
+        });
+
+        given().contentType("application/x-ndjson")
+                .body("{\"name\": \"OK 123\"}\nnot json\n")
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2));
+
+        assertEquals(2, imported.size());
+        assertNull(imported.get(1));
+    }
+
     @Test
     void shouldGetExistingFlight() {
         FlightDto testFlight = getFlightDto();
@@ -77,6 +221,48 @@ class FlightResourceTest {
                 .body("id", equalTo((int) testFlight.id));
     }
 
+    @Test
+    void shouldNotReturnUnchangedFlight() {
+        FlightDto testFlight = getFlightDto();
+        Mockito.when(this.flightService.getFlight(testFlight.id)).thenReturn(Uni.createFrom().item(testFlight));
+
+        var etag = given().when()
+                .get("/" + testFlight.id)
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        given().header("If-None-Match", etag)
+                .when()
+                .get("/" + testFlight.id)
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void shouldNotReturnUnchangedListOfFlights() {
+        Mockito.when(this.flightService.streamAll()).thenReturn(Multi.createFrom().items(getFlightDto()));
+
+        var etag = given().when()
+                .get()
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        given().header("If-None-Match", etag)
+                .when()
+                .get()
+                .then()
+                .statusCode(304);
+
+        Mockito.when(this.flightService.getCollectionVersion()).thenReturn(Uni.createFrom().item("2-2000"));
+        given().header("If-None-Match", etag)
+                .when()
+                .get()
+                .then()
+                .statusCode(200);
+    }
+
     @Test
     void shouldNotGetNonxistingFlight() {
         Mockito.when(this.flightService.getFlight(Mockito.anyLong())).thenReturn(Uni.createFrom().failure(new IllegalArgumentException()));
@@ -118,6 +304,54 @@ class FlightResourceTest {
                 .statusCode(404);
     }
 
+    @Test
+    void shouldChangeStatusOfFlight() {
+        Mockito.when(this.flightService.changeStatus(1L, FlightStatus.BOARDING)).thenReturn(Uni.createFrom().item(true));
+
+        given().when()
+                .put("/1/status/BOARDING")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void shouldNotChangeStatusOfNonexistingFlight() {
+        Mockito.when(this.flightService.changeStatus(99L, FlightStatus.DELAYED)).thenReturn(Uni.createFrom().failure(new IllegalArgumentException()));
+
+        given().when()
+                .put("/99/status/DELAYED")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void shouldCancelBatchOfFlights() {
+        Mockito.when(this.flightService.cancelFlights(List.of(1L, 99L))).thenReturn(Uni.createFrom().item(List.of(
+                new FlightCancellationResult(1L, CancellationStatus.CANCELLED),
+                new FlightCancellationResult(99L, CancellationStatus.NOT_FOUND)
+        )));
+
+        given().contentType("application/json")
+                .body(List.of(1L, 99L))
+                .when()
+                .put("/cancel")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .body("[1].status", equalTo("NOT_FOUND"));
+    }
+
+    @Test
+    void shouldRejectCancellationWithoutIds() {
+        given().contentType("application/json")
+                .when()
+                .put("/cancel")
+                .then()
+                .statusCode(400);
+
+        Mockito.verify(this.flightService, Mockito.never()).cancelFlights(Mockito.any());
+    }
+
 
     private FlightDto getFlightDto() {
         FlightDto flight = new FlightDto();
@@ -0,0 +1,87 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.client.FlightCancellationClient;
+import cz.muni.fi.airportmanager.flightservice.entity.FlightCancellationOutbox;
+import cz.muni.fi.airportmanager.flightservice.repository.FlightCancellationOutboxRepository;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.vertx.RunOnVertxContext;
+import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class FlightCancellationRelayTest {
+
+    @InjectMock
+    FlightCancellationOutboxRepository outboxRepository;
+
+    @InjectMock
+    FlightCancellationClient flightCancellationClient;
+
+    @Inject
+    FlightCancellationRelay relay;
+
+    @Test
+    @RunOnVertxContext
+    void shouldDeleteDeliveredAndRescheduleFailedCancellations(UniAsserter asserter) {
+        var delivered = createCancellation(1L, 10L);
+        var failed = createCancellation(2L, 20L);
+        asserter.execute(() -> {
+            Mockito.when(outboxRepository.lease(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(Duration.class)))
+                    .thenReturn(Uni.createFrom().item(List.of(delivered, failed)));
+            Mockito.when(flightCancellationClient.cancelFlights(List.of(delivered, failed)))
+                    .thenReturn(Uni.createFrom().item(Set.of(delivered.getEventId())));
+            Mockito.when(outboxRepository.deleteDelivered(Mockito.anyCollection())).thenReturn(Uni.createFrom().item(1L));
+            Mockito.when(outboxRepository.reschedule(Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(Duration.class), Mockito.any(Duration.class)))
+                    .thenReturn(Uni.createFrom().voidItem());
+        });
+
+        asserter.assertThat(
+                () -> relay.deliverBatch(),
+                count -> {
+                    assertEquals(1, count);
+                    Mockito.verify(outboxRepository).deleteDelivered(List.of(1L));
+                    Mockito.verify(outboxRepository).reschedule(Mockito.eq(List.of(2L)), Mockito.any(Date.class), Mockito.any(Duration.class), Mockito.any(Duration.class));
+                }
+        );
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldRescheduleAllCancellationsWhenDeliveryFails(UniAsserter asserter) {
+        var cancellation = createCancellation(1L, 10L);
+        asserter.execute(() -> {
+            Mockito.when(outboxRepository.lease(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(Duration.class)))
+                    .thenReturn(Uni.createFrom().item(List.of(cancellation)));
+            Mockito.when(flightCancellationClient.cancelFlights(Mockito.anyList()))
+                    .thenReturn(Uni.createFrom().failure(new RuntimeException("Passenger service is down")));
+            Mockito.when(outboxRepository.deleteDelivered(Mockito.anyCollection())).thenReturn(Uni.createFrom().item(0L));
+            Mockito.when(outboxRepository.reschedule(Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(Duration.class), Mockito.any(Duration.class)))
+                    .thenReturn(Uni.createFrom().voidItem());
+        });
+
+        asserter.assertThat(
+                () -> relay.deliverBatch(),
+                count -> {
+                    assertEquals(0, count);
+                    Mockito.verify(outboxRepository).reschedule(Mockito.eq(List.of(1L)), Mockito.any(Date.class), Mockito.any(Duration.class), Mockito.any(Duration.class));
+                }
+        );
+    }
+
+    private FlightCancellationOutbox createCancellation(long id, long flightId) {
+        var cancellation = FlightCancellationOutbox.of(flightId, "Unknown");
+        cancellation.setId(id);
+        return cancellation;
+    }
+}
@@ -0,0 +1,66 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeEvent;
+import cz.muni.fi.airportmanager.flightservice.model.FlightChangeType;
+import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+class FlightChangeBroadcasterTest {
+
+    private FlightIntervalIndex index;
+    private FlightChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        index = new FlightIntervalIndex();
+        index.retention = Duration.ofHours(24);
+        broadcaster = new FlightChangeBroadcaster();
+        broadcaster.flightIntervalIndex = index;
+        broadcaster.bufferSize = 2;
+    }
+
+    @Test
+    void shouldSendSnapshotFollowedByChanges() {
+        var existing = createFlight(1L);
+        index.put(existing);
+
+        var subscriber = broadcaster.subscribe().subscribe().withSubscriber(AssertSubscriber.<FlightChangeEvent>create(10));
+        var created = FlightChangeEvent.of(FlightChangeType.CREATED, 2L, createFlight(2L));
+        broadcaster.publish(created);
+
+        subscriber.assertItems(FlightChangeEvent.snapshot(List.of(existing)), created);
+        subscriber.cancel();
+    }
+
+    @Test
+    void shouldFailSubscriberThatFallsBehind() {
+        var subscriber = broadcaster.subscribe().subscribe().withSubscriber(AssertSubscriber.<FlightChangeEvent>create(0));
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.publish(FlightChangeEvent.of(FlightChangeType.DELETED, id, null));
+        }
+
+        subscriber.assertFailedWith(BackPressureFailure.class);
+    }
+
+    private FlightDto createFlight(long id) {
+        var flight = new FlightDto();
+        flight.id = id;
+        flight.name = "Flight " + id;
+        flight.airportFrom = "Airport A";
+        flight.airportTo = "Airport B";
+        flight.departureTime = Date.from(Instant.now().plus(Duration.ofHours(1)));
+        flight.arrivalTime = Date.from(Instant.now().plus(Duration.ofHours(3)));
+        flight.capacity = 100;
+        flight.status = FlightStatus.ACTIVE;
+        return flight;
+    }
+}
@@ -0,0 +1,110 @@
+package cz.muni.fi.airportmanager.flightservice.service;
+
+import cz.muni.fi.airportmanager.flightservice.model.FlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightIntervalIndexTest {
+
+    private final Instant now = Instant.now();
+
+    private FlightIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FlightIntervalIndex();
+        index.retention = Duration.ofHours(24);
+    }
+
+    @Test
+    void shouldFindOngoingFutureAndPastFlights() {
+        index.put(flight(1L, -5, -3));
+        index.put(flight(2L, -2, 2));
+        index.put(flight(3L, -1, 5));
+        index.put(flight(4L, 1, 3));
+
+        var at = Date.from(now);
+        assertEquals(List.of(2L, 3L), ids(index.findOngoing(at)));
+        assertEquals(List.of(4L), ids(index.findFuture(at)));
+        assertEquals(List.of(1L), ids(index.findPast(at)));
+    }
+
+    @Test
+    void shouldFindOngoingFlightsAmongManyIntervals() {
+        for (long i = 0; i < 200; i++) {
+            index.put(flight(i, -100 + i, -100 + i + (i % 7) + 1));
+        }
+
+        for (int hour = -110; hour <= 110; hour += 3) {
+            var at = Date.from(now.plus(Duration.ofHours(hour)));
+            var expected = index.findAll().stream()
+                    .filter(flight -> !flight.departureTime.after(at) && !flight.arrivalTime.before(at))
+                    .map(flight -> flight.id)
+                    .toList();
+            assertEquals(expected, ids(index.findOngoing(at)));
+        }
+    }
+
+    @Test
+    void shouldReflectUpdates() {
+        index.put(flight(1L, -1, 1));
+        index.put(flight(2L, -1, 1));
+        var at = Date.from(now);
+        assertEquals(2, index.findOngoing(at).size());
+
+        index.remove(1L);
+        index.updateStatus(2L, FlightStatus.CANCELLED);
+        var ongoing = index.findOngoing(at);
+        assertEquals(List.of(2L), ids(ongoing));
+        assertEquals(FlightStatus.CANCELLED, ongoing.get(0).status);
+        assertEquals(1L, ongoing.get(0).version);
+
+        index.clear();
+        assertTrue(index.findOngoing(at).isEmpty());
+    }
+
+    @Test
+    void shouldNotIndexFlightArrivingBeforeDeparture() {
+        index.put(flight(1L, 1, -1));
+        index.load(List.of(flight(2L, 2, -2)));
+        index.put(flight(3L, -1, 1));
+        var at = Date.from(now);
+
+        assertEquals(List.of(3L), ids(index.findOngoing(at)));
+        assertTrue(index.findPast(at).isEmpty());
+        assertTrue(index.findFuture(at).isEmpty());
+    }
+
+    @Test
+    void shouldDropFlightsOutsideRetention() {
+        index.put(flight(1L, -50, -48));
+        index.put(flight(2L, -5, -3));
+
+        assertEquals(List.of(2L), ids(index.findPast(Date.from(now))));
+    }
+
+    private FlightDto flight(long id, long departureHours, long arrivalHours) {
+        var flight = new FlightDto();
+        flight.id = id;
+        flight.name = "Flight " + id;
+        flight.airportFrom = "Airport A";
+        flight.airportTo = "Airport B";
+        flight.departureTime = Date.from(now.plus(Duration.ofHours(departureHours)));
+        flight.arrivalTime = Date.from(now.plus(Duration.ofHours(arrivalHours)));
+        flight.capacity = 100;
+        flight.status = FlightStatus.ACTIVE;
+        return flight;
+    }
+
+    private static List<Long> ids(List<FlightDto> flights) {
+        return flights.stream().map(flight -> flight.id).toList();
+    }
+}
@@ -1,20 +1,29 @@
 package cz.muni.fi.airportmanager.flightservice.service;
 
 import cz.muni.fi.airportmanager.flightservice.entity.Flight;
+import cz.muni.fi.airportmanager.flightservice.kafka.producer.FlightStatusChangeProducer;
 import cz.muni.fi.airportmanager.flightservice.model.CreateFlightDto;
+import cz.muni.fi.airportmanager.flightservice.model.FlightImportResult;
+import cz.muni.fi.airportmanager.flightservice.model.FlightImportStatus;
 import cz.muni.fi.airportmanager.flightservice.model.FlightStatus;
+import cz.muni.fi.airportmanager.flightservice.repository.FlightCancellationOutboxRepository;
 import cz.muni.fi.airportmanager.flightservice.repository.FlightRepository;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.vertx.RunOnVertxContext;
 import io.quarkus.test.vertx.UniAsserter;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import java.time.Duration;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -26,9 +35,22 @@ class FlightServiceTest {
     @InjectMock
     FlightRepository flightRepository;
 
+    @InjectMock
+    FlightCancellationOutboxRepository outboxRepository;
+
+    @InjectMock
+    FlightStatusChangeProducer flightStatusChangeProducer;
+
     @Inject
     FlightService flightService;
 
+    @CacheName("flight")
+    Cache flightCache;
+
+    @BeforeEach
+    void clearCache() {
+        flightCache.invalidateAll().await().indefinitely();
+    }
 
     @Test
     @RunOnVertxContext
@@ -49,6 +71,36 @@ class FlightServiceTest {
         );
     }
 
+    @Test
+    @RunOnVertxContext
+    void shouldGetPageOfFlights(UniAsserter asserter) {
+        var flight = createOngoingFlight();
+        asserter.execute(() -> Mockito.when(flightRepository.findPageAfter(0L, 10)).thenReturn(Uni.createFrom().item(List.of(flight))));
+
+        asserter.assertThat(
+                () -> flightService.listPage(0L, 10),
+                flights -> {
+                    assertEquals(1L, flights.size());
+                    assertEquals(flight.toDto(), flights.get(0));
+                }
+        );
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldStreamAllFlights(UniAsserter asserter) {
+        var flight = createOngoingFlight();
+        asserter.execute(() -> Mockito.when(flightRepository.findPageAfter(Mockito.anyLong(), Mockito.anyInt())).thenReturn(Uni.createFrom().item(List.of(flight))));
+
+        asserter.assertThat(
+                () -> flightService.streamAll().collect().asList(),
+                flights -> {
+                    assertEquals(1L, flights.size());
+                    assertEquals(flight.toDto(), flights.get(0));
+                }
+        );
+    }
+
     @Test
     @RunOnVertxContext
     void shouldGetExistingFlight(UniAsserter asserter) {
@@ -64,6 +116,22 @@ class FlightServiceTest {
         );
     }
 
+    @Test
+    @RunOnVertxContext
+    void shouldServeRepeatedLookupsFromCache(UniAsserter asserter) {
+        var flight = createOngoingFlight();
+        asserter.execute(() -> Mockito.when(flightRepository.findById(flight.getId())).thenReturn(Uni.createFrom().item(flight)));
+
+        asserter.execute(() -> flightService.getFlight(flight.getId()));
+        asserter.assertThat(
+                () -> flightService.getFlight(flight.getId()),
+                found -> {
+                    assertEquals(flight.toDto(), found);
+                    Mockito.verify(flightRepository, Mockito.times(1)).findById(flight.getId());
+                }
+        );
+    }
+
     @Test
     @RunOnVertxContext
     void shouldNotGetNonexistingFlight(UniAsserter asserter) {
@@ -135,6 +203,76 @@ class FlightServiceTest {
         );
     }
 
+    @Test
+    @RunOnVertxContext
+    void shouldRejectFlightArrivingBeforeDeparture(UniAsserter asserter) {
+        var flight = createOngoingFlight();
+        var createFlightDto = new CreateFlightDto();
+        createFlightDto.name = flight.getName();
+        createFlightDto.departureTime = flight.getArrivalTime();
+        createFlightDto.arrivalTime = flight.getDepartureTime();
+
+        asserter.assertFailedWith(() -> flightService.createFlight(createFlightDto), BadRequestException.class);
+        asserter.execute(() -> Mockito.verify(flightRepository, Mockito.never()).persist(Mockito.any(Flight.class)));
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldImportFlights(UniAsserter asserter) {
+        var valid = createOngoingFlight().toDto();
+        var invalid = new CreateFlightDto();
+
+        asserter.execute(() -> Mockito.when(flightRepository.persist(Mockito.<Iterable<Flight>>any())).thenAnswer(invocation -> {
+            Iterable<Flight> flights = invocation.getArgument(0);
+            long id = 10;
+            for (Flight flight : flights) {
+                flight.setId(id++);
+            }
+            return Uni.createFrom().voidItem();
+        }));
+
+        asserter.assertThat(
+                () -> flightService.importFlights(Arrays.asList(valid, invalid, null).iterator()),
+                results -> {
+                    assertEquals(3, results.size());
+                    assertEquals(FlightImportResult.created(0, 10L), results.get(0));
+                    assertEquals(FlightImportStatus.INVALID, results.get(1).status);
+                    assertEquals(FlightImportStatus.INVALID, results.get(2).status);
+                }
+        );
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldCancelFlightThroughOutbox(UniAsserter asserter) {
+        asserter.execute(() -> Mockito.when(flightRepository.changeStatus(1L, FlightStatus.CANCELLED)).thenReturn(Uni.createFrom().voidItem()));
+        asserter.execute(() -> Mockito.when(outboxRepository.enqueue(Mockito.anyCollection(), Mockito.anyString())).thenReturn(Uni.createFrom().voidItem()));
+
+        asserter.assertThat(
+                () -> flightService.cancelFlight(1L),
+                cancelled -> {
+                    assertTrue(cancelled);
+                    Mockito.verify(outboxRepository).enqueue(List.of(1L), "Unknown");
+                    Mockito.verify(flightStatusChangeProducer).send(1L, FlightStatus.CANCELLED);
+                }
+        );
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldPublishStatusChange(UniAsserter asserter) {
+        asserter.execute(() -> Mockito.when(flightRepository.changeStatus(1L, FlightStatus.BOARDING)).thenReturn(Uni.createFrom().voidItem()));
+
+        asserter.assertThat(
+                () -> flightService.changeStatus(1L, FlightStatus.BOARDING),
+                changed -> {
+                    assertTrue(changed);
+                    Mockito.verify(flightStatusChangeProducer).send(1L, FlightStatus.BOARDING);
+                    Mockito.verifyNoInteractions(outboxRepository);
+                }
+        );
+    }
+
     private Flight createOngoingFlight() {
         var future = Date.from(java.time.Instant.now().plus(Duration.ofMinutes(1000 * 60)));
         var past = Date.from(java.time.Instant.now().minus(Duration.ofMinutes(1000 * 60)));
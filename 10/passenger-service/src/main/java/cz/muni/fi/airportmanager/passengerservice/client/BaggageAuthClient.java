@@ -0,0 +1,20 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.ServiceToken;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import org.eclipse.microprofile.rest.client.annotation.RegisterClientHeaders;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Client issuing service tokens of baggage service, authenticated with the basic credentials
+ */
+@RegisterRestClient(configKey = "baggage-resource")
+@RegisterClientHeaders(BaggageClientCustomHeaders.class)
+public interface BaggageAuthClient {
+
+    @POST
+    @Path("/auth/token")
+    Uni<ServiceToken> issueToken();
+}
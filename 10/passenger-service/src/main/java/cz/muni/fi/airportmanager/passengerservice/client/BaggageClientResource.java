@@ -4,6 +4,7 @@ import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
 import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import org.eclipse.microprofile.health.HealthCheckResponse;
@@ -19,13 +20,21 @@ import java.util.List;
  * Client for baggage service
  */
 @RegisterRestClient(configKey = "baggage-resource")
-@RegisterClientHeaders(BaggageClientCustomHeaders.class)
+@RegisterClientHeaders(BaggageTokenHeaders.class)
 public interface BaggageClientResource {
 
+    @GET
+    @Path("/baggage")
+    Uni<List<Baggage>> getAllBaggage();
+
     @GET
     @Path("/baggage/passenger/{passengerId}")
     Uni<List<Baggage>> getBaggageForPassengerIdWithAuth(@PathParam("passengerId") Long passengerId);
 
+    @POST
+    @Path("/baggage/passengers")
+    Uni<List<Baggage>> getBaggageForPassengerIdsWithAuth(List<Long> passengerIds);
+
 
     @GET
     @Path("/q/health/ready")
@@ -0,0 +1,181 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.health.BaggageServiceHealthCheck;
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Loads baggage of passengers through {@link BaggageClientResource}.
+ * Concurrent requests for the same passenger share one in-flight call and requests for different passengers
+ * arriving within the batch window are sent to baggage service as one bulk request.
+ */
+@ApplicationScoped
+public class BaggageLoader {
+
+    @RestClient
+    BaggageClientResource baggageClientResource;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    @Named(RetryPolicies.BAGGAGE_SERVICE)
+    RetryPolicy retryPolicy;
+
+    @Inject
+    BaggageServiceHealthCheck baggageServiceHealthCheck;
+
+    /**
+     * How long to wait for more passenger ids before the batch is sent
+     */
+    @ConfigProperty(name = "baggage-loader.batch-window", defaultValue = "PT0.005S")
+    Duration batchWindow;
+
+    /**
+     * Maximum number of passenger ids in one bulk request, a full batch is sent right away
+     */
+    @ConfigProperty(name = "baggage-loader.max-batch-size", defaultValue = "100")
+    int maxBatchSize;
+
+    private final Map<Long, CompletableFuture<List<Baggage>>> inFlight = new ConcurrentHashMap<>();
+    private Map<Long, CompletableFuture<List<Baggage>>> pending = new LinkedHashMap<>();
+    private long timerId = -1;
+
+    private Counter requests;
+    private Counter coalesced;
+    private Counter calls;
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    void registerMetrics() {
+        requests = Counter.builder("baggage_loader_requests")
+                .description("Number of baggage requests of single passengers")
+                .register(registry);
+        coalesced = Counter.builder("baggage_loader_coalesced")
+                .description("Number of baggage requests served by a call that was already in flight")
+                .register(registry);
+        calls = Counter.builder("baggage_loader_calls")
+                .description("Number of bulk calls to baggage service")
+                .register(registry);
+        batchSize = DistributionSummary.builder("baggage_loader_batch_size")
+                .description("Number of passengers in one bulk call to baggage service")
+                .register(registry);
+    }
+
+    /**
+     * Load baggage of a passenger
+     *
+     * @param passengerId passenger id
+     * @return baggage of the passenger, empty list if the passenger has no baggage
+     */
+    public Uni<List<Baggage>> load(Long passengerId) {
+        return Uni.createFrom().emitter(emitter -> {
+            // Complete on the caller's context, so the caller can keep using its session
+            Context context = Vertx.currentContext();
+            enqueue(passengerId).whenComplete((baggage, failure) -> {
+                Runnable complete = () -> {
+                    if (failure != null) {
+                        emitter.fail(failure);
+                    } else {
+                        emitter.complete(baggage);
+                    }
+                };
+                if (context == null) {
+                    complete.run();
+                } else {
+                    context.runOnContext(ignored -> complete.run());
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<List<Baggage>> enqueue(Long passengerId) {
+        Map<Long, CompletableFuture<List<Baggage>>> full = null;
+        CompletableFuture<List<Baggage>> future;
+        synchronized (this) {
+            requests.increment();
+            future = inFlight.get(passengerId);
+            if (future != null) {
+                coalesced.increment();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(passengerId, future);
+            pending.put(passengerId, future);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                timerId = vertx.setTimer(Math.max(1, batchWindow.toMillis()), ignored -> flush());
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<List<Baggage>>> batch;
+        synchronized (this) {
+            timerId = -1;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    private Map<Long, CompletableFuture<List<Baggage>>> takePending() {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+        var batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(Map<Long, CompletableFuture<List<Baggage>>> batch) {
+        calls.increment();
+        batchSize.record(batch.size());
+        var passengerIds = new ArrayList<>(batch.keySet());
+        retryPolicy.execute(() -> baggageServiceHealthCheck.observe(baggageClientResource.getBaggageForPassengerIdsWithAuth(passengerIds)))
+                .subscribe().with(
+                        baggage -> {
+                            var baggageByPassenger = baggage.stream().collect(Collectors.groupingBy(item -> item.passengerId));
+                            batch.forEach((passengerId, future) -> {
+                                inFlight.remove(passengerId, future);
+                                future.complete(baggageByPassenger.getOrDefault(passengerId, List.of()));
+                            });
+                        },
+                        failure -> batch.forEach((passengerId, future) -> {
+                            inFlight.remove(passengerId, future);
+                            future.completeExceptionally(failure);
+                        })
+                );
+    }
+}
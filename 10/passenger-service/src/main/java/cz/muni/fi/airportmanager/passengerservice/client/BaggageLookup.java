@@ -0,0 +1,27 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+
+import java.util.List;
+
+/**
+ * Baggage of a passenger together with the information whether it is the last known list
+ * served while baggage service is unavailable
+ */
+public class BaggageLookup {
+    public final List<Baggage> baggage;
+    public final boolean stale;
+
+    private BaggageLookup(List<Baggage> baggage, boolean stale) {
+        this.baggage = baggage;
+        this.stale = stale;
+    }
+
+    public static BaggageLookup fresh(List<Baggage> baggage) {
+        return new BaggageLookup(baggage, false);
+    }
+
+    public static BaggageLookup stale(List<Baggage> baggage) {
+        return new BaggageLookup(baggage, true);
+    }
+}
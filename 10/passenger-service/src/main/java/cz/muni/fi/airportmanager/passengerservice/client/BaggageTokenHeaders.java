@@ -0,0 +1,27 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import io.quarkus.rest.client.reactive.ReactiveClientHeadersFactory;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Authenticates calls to baggage service with a bearer service token
+ */
+@ApplicationScoped
+public class BaggageTokenHeaders extends ReactiveClientHeadersFactory {
+
+    @Inject
+    BaggageTokenProvider baggageTokenProvider;
+
+    @Override
+    public Uni<MultivaluedMap<String, String>> getHeaders(MultivaluedMap<String, String> incomingHeaders, MultivaluedMap<String, String> clientOutgoingHeaders) {
+        return baggageTokenProvider.getToken().onItem().transform(token -> {
+            MultivaluedMap<String, String> result = new MultivaluedHashMap<>();
+            result.add("Authorization", "Bearer " + token);
+            return result;
+        });
+    }
+}
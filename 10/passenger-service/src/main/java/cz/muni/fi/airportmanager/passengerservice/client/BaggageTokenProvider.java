@@ -0,0 +1,64 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.ServiceToken;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps a service token of baggage service.
+ * The token is issued on first use and refreshed in the background shortly before it expires,
+ * concurrent callers share one refresh.
+ */
+@ApplicationScoped
+public class BaggageTokenProvider {
+
+    @RestClient
+    BaggageAuthClient baggageAuthClient;
+
+    /**
+     * How long before the expiration the token is refreshed
+     */
+    @ConfigProperty(name = "baggage-service.token.refresh-before", defaultValue = "PT30S")
+    Duration refreshBefore;
+
+    private volatile ServiceToken current;
+    private Uni<ServiceToken> refresh;
+
+    /**
+     * Get a valid service token
+     *
+     * @return the cached token, or a newly issued one if there is no valid token
+     */
+    public Uni<String> getToken() {
+        var token = current;
+        var now = Instant.now().getEpochSecond();
+        if (token == null || now >= token.expiresAt) {
+            return refresh().onItem().transform(issued -> issued.token);
+        }
+        if (now >= token.expiresAt - refreshBefore.toSeconds()) {
+            refresh().subscribe().with(ignored -> {
+            }, ignored -> {
+            });
+        }
+        return Uni.createFrom().item(token.token);
+    }
+
+    private synchronized Uni<ServiceToken> refresh() {
+        if (refresh == null) {
+            refresh = baggageAuthClient.issueToken()
+                    .invoke(issued -> current = issued)
+                    .eventually(() -> {
+                        synchronized (this) {
+                            refresh = null;
+                        }
+                    })
+                    .memoize().indefinitely();
+        }
+        return refresh;
+    }
+}
@@ -0,0 +1,155 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import cz.muni.fi.airportmanager.passengerservice.service.BaggageProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Baggage lookups guarded by a timeout and a circuit breaker.
+ * The last known baggage of recently looked up passengers is kept, and served flagged as stale when a lookup
+ * fails or the circuit is open. Passengers that were never looked up are served from the last snapshot of
+ * {@link BaggageProjection}, even when it is too old to be ready. Serving a stale list triggers a refresh
+ * in the background, at most once per passenger per refresh interval.
+ */
+@ApplicationScoped
+public class ResilientBaggageClient {
+
+    static final String CIRCUIT_BREAKER = "baggage-service";
+
+    @Inject
+    BaggageLoader baggageLoader;
+
+    @Inject
+    BaggageProjection baggageProjection;
+
+    @Inject
+    CircuitBreakerMaintenance circuitBreakerMaintenance;
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Number of passengers whose last known baggage is kept
+     */
+    @ConfigProperty(name = "baggage-client.cache-size", defaultValue = "10000")
+    int capacity;
+
+    /**
+     * Minimum time between two background refreshes of the baggage of one passenger
+     */
+    @ConfigProperty(name = "baggage-client.refresh-interval", defaultValue = "PT5S")
+    Duration refreshInterval;
+
+    private final Map<Long, List<Baggage>> lastKnown = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<Baggage>> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    private final Map<Long, Long> refreshedAt = new ConcurrentHashMap<>();
+
+    private Counter staleServed;
+
+    @PostConstruct
+    void registerMetrics() {
+        staleServed = Counter.builder("baggage_client_stale")
+                .description("Number of baggage lookups served from the last known baggage")
+                .register(registry);
+    }
+
+    /**
+     * Get baggage of a passenger
+     *
+     * @param passengerId passenger id
+     * @return baggage of the passenger, stale if baggage service is unavailable
+     * @throws IllegalStateException if baggage service is unavailable and no baggage of the passenger is known
+     */
+    @Timeout(1000)
+    @CircuitBreaker(
+            requestVolumeThreshold = 10,
+            failureRatio = 0.5,
+            delay = 5000,
+            successThreshold = 2
+    )
+    @CircuitBreakerName(CIRCUIT_BREAKER)
+    @Fallback(fallbackMethod = "lastKnownBaggage")
+    public Uni<BaggageLookup> getBaggage(Long passengerId) {
+        return baggageLoader.load(passengerId)
+                .onItem().transform(baggage -> {
+                    remember(passengerId, baggage);
+                    return BaggageLookup.fresh(baggage);
+                });
+    }
+
+    Uni<BaggageLookup> lastKnownBaggage(Long passengerId) {
+        List<Baggage> baggage;
+        synchronized (lastKnown) {
+            baggage = lastKnown.get(passengerId);
+        }
+        if (baggage == null && baggageProjection.hasSnapshot()) {
+            baggage = baggageProjection.getBaggageForPassenger(passengerId);
+        }
+        if (baggage == null) {
+            return Uni.createFrom().failure(new IllegalStateException("Baggage service is unavailable and no baggage of passenger " + passengerId + " is known"));
+        }
+        staleServed.increment();
+        // An open circuit is probed by the next requests once its delay passes
+        if (circuitBreakerMaintenance.currentState(CIRCUIT_BREAKER) != CircuitBreakerState.OPEN && shouldRefresh(passengerId)) {
+            baggageLoader.load(passengerId)
+                    .subscribe().with(refreshed -> remember(passengerId, refreshed), ignored -> {
+                    });
+        }
+        return Uni.createFrom().item(BaggageLookup.stale(baggage));
+    }
+
+    /**
+     * Remember baggage of a passenger loaded elsewhere, e.g. by a bulk lookup
+     *
+     * @param passengerId passenger id
+     * @param baggage     baggage of the passenger
+     */
+    public void remember(Long passengerId, List<Baggage> baggage) {
+        synchronized (lastKnown) {
+            lastKnown.put(passengerId, baggage);
+        }
+    }
+
+    /**
+     * Claim the background refresh of a passenger, unless one was started within the refresh interval
+     */
+    private boolean shouldRefresh(Long passengerId) {
+        var now = System.currentTimeMillis();
+        var since = now - refreshInterval.toMillis();
+        if (refreshedAt.size() >= capacity) {
+            refreshedAt.values().removeIf(startedAt -> startedAt <= since);
+        }
+        var claimed = new boolean[1];
+        refreshedAt.compute(passengerId, (ignored, startedAt) -> {
+            if (startedAt != null && startedAt > since) {
+                return startedAt;
+            }
+            claimed[0] = true;
+            return now;
+        });
+        return claimed[0];
+    }
+}
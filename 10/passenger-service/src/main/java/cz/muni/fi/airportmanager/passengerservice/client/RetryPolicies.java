@@ -0,0 +1,42 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+/**
+ * Retry policies of the services this service calls, one shared policy per target.
+ * The flight service produces its policies the same way, only the targets and their config keys differ.
+ */
+@ApplicationScoped
+public class RetryPolicies {
+
+    public static final String BAGGAGE_SERVICE = "baggage-service";
+
+    @ConfigProperty(name = "baggage-service.retry.max-retries", defaultValue = "3")
+    int maxRetries;
+
+    @ConfigProperty(name = "baggage-service.retry.base-delay", defaultValue = "PT0.05S")
+    Duration baseDelay;
+
+    @ConfigProperty(name = "baggage-service.retry.max-delay", defaultValue = "PT0.5S")
+    Duration maxDelay;
+
+    @ConfigProperty(name = "baggage-service.retry.budget-ratio", defaultValue = "0.1")
+    double budgetRatio;
+
+    @ConfigProperty(name = "baggage-service.retry.budget-max", defaultValue = "10")
+    double budgetMax;
+
+    @Produces
+    @Singleton
+    @Named(BAGGAGE_SERVICE)
+    RetryPolicy baggageService(MeterRegistry registry) {
+        return new RetryPolicy(BAGGAGE_SERVICE, registry, maxRetries, baseDelay, maxDelay, budgetRatio, budgetMax);
+    }
+}
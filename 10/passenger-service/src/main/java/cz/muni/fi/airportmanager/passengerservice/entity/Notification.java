@@ -1,16 +1,60 @@
 package cz.muni.fi.airportmanager.passengerservice.entity;
 
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
+import java.util.Date;
 import java.util.Objects;
+import java.util.UUID;
 
+/**
+ * Notification for a single passenger or, when flightId is set, a broadcast to all passengers of the flight.
+ * Broadcasts are stored once and merged with personal notifications when they are read.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "notification_passenger_id_idx", columnList = "passengerId"),
+        @Index(name = "notification_flight_id_idx", columnList = "flightId"),
+        @Index(name = "notification_commit_order_idx", columnList = "commitOrder")
+})
 public class Notification extends PanacheEntity {
     public String message;
 
     public Long passengerId;
 
+    public Long flightId;
+
+    public Date createdAt = new Date();
+
+    /**
+     * Position of the notification in the order notifications were committed, the read state of a passenger
+     * is a cursor on it
+     */
+    public Long commitOrder;
+
+    /**
+     * Id of the event the notification was created from, unique so a redelivered event cannot be stored twice
+     */
+    @Column(unique = true)
+    public UUID eventId;
+
+    /**
+     * Create a broadcast notification for all passengers of a flight
+     *
+     * @param flightId flight id
+     * @param message  notification message
+     * @return notification
+     */
+    public static Notification broadcast(Long flightId, String message) {
+        var notification = new Notification();
+        notification.flightId = flightId;
+        notification.message = message;
+        return notification;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -19,13 +63,15 @@ public class Notification extends PanacheEntity {
         Notification that = (Notification) o;
 
         if (!Objects.equals(message, that.message)) return false;
-        return Objects.equals(passengerId, that.passengerId);
+        if (!Objects.equals(passengerId, that.passengerId)) return false;
+        return Objects.equals(flightId, that.flightId);
     }
 
     @Override
     public int hashCode() {
         int result = message != null ? message.hashCode() : 0;
         result = 31 * result + (passengerId != null ? passengerId.hashCode() : 0);
+        result = 31 * result + (flightId != null ? flightId.hashCode() : 0);
         return result;
     }
 }
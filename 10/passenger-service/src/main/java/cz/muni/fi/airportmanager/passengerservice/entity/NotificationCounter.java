@@ -0,0 +1,28 @@
+package cz.muni.fi.airportmanager.passengerservice.entity;
+
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Single row handing out the commit order of notifications. A writer keeps the row locked until it commits,
+ * so a notification is never visible before the notifications with a lower commit order.
+ */
+@Entity
+public class NotificationCounter extends PanacheEntityBase {
+    public static final long ID = 1L;
+
+    @Id
+    public Long id;
+
+    /**
+     * Commit order of the last stored notification
+     */
+    public long last;
+
+    public static NotificationCounter create() {
+        var counter = new NotificationCounter();
+        counter.id = ID;
+        return counter;
+    }
+}
@@ -1,19 +1,24 @@
 package cz.muni.fi.airportmanager.passengerservice.entity;
 
 import cz.muni.fi.airportmanager.passengerservice.model.CreatePassengerDto;
+import cz.muni.fi.airportmanager.passengerservice.model.PassengerDto;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = @Index(name = "passenger_flight_id_idx", columnList = "flightId"))
 public class Passenger {
     @Id
     @GeneratedValue
@@ -22,8 +27,19 @@ public class Passenger {
     private String lastName;
     private String email;
     private Long flightId;
-
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    /**
+     * When the passenger joined the flight, broadcasts to the flight sent before are not in the passenger's inbox
+     */
+    private Date createdAt = new Date();
+    /**
+     * Commit order of the last notification the passenger has read, the notifications up to it are read
+     */
+    private long readUpTo;
+
+    /**
+     * Personal notifications of the passenger, loaded lazily. Read them page by page through the repository.
+     */
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JoinColumn(name = "passengerId")
     private List<Notification> notifications = new ArrayList<>();
 
@@ -79,6 +95,32 @@ public class Passenger {
         this.flightId = flightId;
     }
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getReadUpTo() {
+        return readUpTo;
+    }
+
+    public void setReadUpTo(long readUpTo) {
+        this.readUpTo = readUpTo;
+    }
+
+    public PassengerDto toDto() {
+        PassengerDto passengerDto = new PassengerDto();
+        passengerDto.id = id;
+        passengerDto.firstName = firstName;
+        passengerDto.lastName = lastName;
+        passengerDto.email = email;
+        passengerDto.flightId = flightId;
+        return passengerDto;
+    }
+
     public static Passenger fromDto(CreatePassengerDto passengerDto) {
         Passenger passenger = new Passenger();
         passenger.setFirstName(passengerDto.firstName);
@@ -99,8 +141,7 @@ public class Passenger {
         if (!Objects.equals(firstName, passenger.firstName)) return false;
         if (!Objects.equals(lastName, passenger.lastName)) return false;
         if (!Objects.equals(email, passenger.email)) return false;
-        if (!Objects.equals(flightId, passenger.flightId)) return false;
-        return Objects.equals(notifications, passenger.notifications);
+        return Objects.equals(flightId, passenger.flightId);
     }
 
     @Override
@@ -110,7 +151,6 @@ public class Passenger {
         result = 31 * result + (lastName != null ? lastName.hashCode() : 0);
         result = 31 * result + (email != null ? email.hashCode() : 0);
         result = 31 * result + (flightId != null ? flightId.hashCode() : 0);
-        result = 31 * result + (notifications != null ? notifications.hashCode() : 0);
         return result;
     }
 }
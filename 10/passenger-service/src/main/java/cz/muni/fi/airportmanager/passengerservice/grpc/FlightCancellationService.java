@@ -7,8 +7,20 @@ import cz.muni.fi.airportmanager.proto.FlightCancellationResponse;
 import cz.muni.fi.airportmanager.proto.FlightCancellationResponseStatus;
 import cz.muni.fi.airportmanager.proto.MutinyFlightCancellationGrpc;
 import io.quarkus.grpc.GrpcService;
+import io.quarkus.logging.Log;
+import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 
 @GrpcService
@@ -18,6 +30,21 @@ public class FlightCancellationService extends MutinyFlightCancellationGrpc.Flig
     @Inject
     PassengerService passengerService;
 
+    @Inject
+    Vertx vertx;
+
+    /**
+     * Maximum number of cancellations written in one transaction
+     */
+    @ConfigProperty(name = "flight-cancellation.batch-size", defaultValue = "50")
+    int batchSize;
+
+    /**
+     * How long to wait for more cancellations before writing an incomplete batch
+     */
+    @ConfigProperty(name = "flight-cancellation.batch-window", defaultValue = "PT0.1S")
+    Duration batchWindow;
+
     /**
      * Cancel flight and add notification for all passengers
      *
@@ -27,10 +54,74 @@ public class FlightCancellationService extends MutinyFlightCancellationGrpc.Flig
     @Override
     public Uni<FlightCancellationResponse> cancelFlight(FlightCancellationRequest request) {
         var flightId = request.getId();
-        var reason = request.getReason();
         var notification = new Notification();
-        notification.message = "Your flight " + flightId + " has been cancelled. Reason: " + reason;
+        notification.message = message(request);
         return passengerService.addNotificationByFlightId((long) flightId, notification)
-                .onItem().transform(ignored -> FlightCancellationResponse.newBuilder().setStatus(FlightCancellationResponseStatus.Cancelled).build());
+                .onItem().transform(ignored -> response(flightId, FlightCancellationResponseStatus.Cancelled));
+    }
+
+    /**
+     * Cancel a stream of flights. Requests are grouped into batches and notifications for a whole batch
+     * are written in one transaction, one response is sent for every request.
+     * A batch closed by the window timer is emitted on a worker thread, so every batch is written
+     * on its own duplicated Vert.x context.
+     * A request whose event id has already been stored is confirmed without notifying the passengers again.
+     *
+     * @param requests stream of requests with flight id and reason for cancellation
+     * @return stream of responses with status of cancellation
+     */
+    @Override
+    public Multi<FlightCancellationResponse> cancelFlights(Multi<FlightCancellationRequest> requests) {
+        return requests
+                .group().intoLists().of(batchSize, batchWindow)
+                .onItem().transformToUniAndConcatenate(batch -> onNewContext(() -> cancelBatch(batch)))
+                .onItem().transformToIterable(responses -> responses);
+    }
+
+    private Uni<List<FlightCancellationResponse>> cancelBatch(List<FlightCancellationRequest> batch) {
+        var broadcasts = batch.stream()
+                .map(request -> {
+                    var notification = Notification.broadcast((long) request.getId(), message(request));
+                    notification.eventId = eventId(request);
+                    return notification;
+                })
+                .toList();
+        return passengerService.addNotificationsByFlightIds(broadcasts)
+                .onItem().transform(ignored -> responses(batch, FlightCancellationResponseStatus.Cancelled))
+                .onFailure().recoverWithItem(failure -> {
+                    Log.errorf(failure, "Failed to store cancellations of %d flights", batch.size());
+                    return responses(batch, FlightCancellationResponseStatus.Error);
+                });
+    }
+
+    /**
+     * Run the work on a new duplicated context, so it gets its own session and transaction
+     */
+    private <T> Uni<T> onNewContext(Supplier<Uni<T>> work) {
+        Context context = VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext());
+        VertxContextSafetyToggle.setContextSafe(context, true);
+        return Uni.createFrom().emitter(emitter -> context.runOnContext(ignored ->
+                work.get().subscribe().with(emitter::complete, emitter::fail)));
+    }
+
+    private static List<FlightCancellationResponse> responses(List<FlightCancellationRequest> batch, FlightCancellationResponseStatus status) {
+        return batch.stream()
+                .map(request -> response(request.getId(), status).toBuilder().setEventId(request.getEventId()).build())
+                .toList();
+    }
+
+    private static FlightCancellationResponse response(int flightId, FlightCancellationResponseStatus status) {
+        return FlightCancellationResponse.newBuilder().setId(flightId).setStatus(status).build();
+    }
+
+    /**
+     * Id of the cancellation in the sender's outbox, a redelivered cancellation carries the same id
+     */
+    private static UUID eventId(FlightCancellationRequest request) {
+        return request.getEventId().isEmpty() ? null : UUID.fromString(request.getEventId());
+    }
+
+    private static String message(FlightCancellationRequest request) {
+        return "Your flight " + request.getId() + " has been cancelled. Reason: " + request.getReason();
     }
 }
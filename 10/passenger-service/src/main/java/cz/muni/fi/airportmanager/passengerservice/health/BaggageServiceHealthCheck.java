@@ -1,13 +1,25 @@
 package cz.muni.fi.airportmanager.passengerservice.health;
 
 import cz.muni.fi.airportmanager.passengerservice.client.BaggageClientResource;
+import io.quarkus.scheduler.Scheduled;
 import io.smallrye.health.api.AsyncHealthCheck;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.Readiness;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
+import java.time.Duration;
+
+/**
+ * Readiness of baggage service.
+ * <p>
+ * The verdict is cached: baggage service readiness is probed in the background at a fixed interval and the outcomes
+ * of the recent real calls to baggage service are tracked, so a readiness probe never calls baggage service itself.
+ * Outcomes expire after a while, so failures from an outage that is over do not keep the service not ready
+ * when no new calls come in.
+ */
 @Readiness
 @ApplicationScoped
 public class BaggageServiceHealthCheck implements AsyncHealthCheck {
@@ -15,16 +27,105 @@ public class BaggageServiceHealthCheck implements AsyncHealthCheck {
     @RestClient
     BaggageClientResource baggageClientResource;
 
+    @ConfigProperty(name = "baggage-service.health.probe-timeout", defaultValue = "PT2S")
+    Duration probeTimeout;
+
+    /**
+     * Number of the most recent real calls considered
+     */
+    @ConfigProperty(name = "baggage-service.health.window-size", defaultValue = "20")
+    int windowSize;
+
+    /**
+     * Ratio of failed recent calls from which baggage service is reported not ready
+     */
+    @ConfigProperty(name = "baggage-service.health.failure-ratio", defaultValue = "0.5")
+    double failureRatio;
+
+    /**
+     * Number of recent calls needed before their failures are considered
+     */
+    @ConfigProperty(name = "baggage-service.health.min-calls", defaultValue = "5")
+    int minCalls;
+
+    /**
+     * Age after which the outcome of a call is no longer considered
+     */
+    @ConfigProperty(name = "baggage-service.health.max-age", defaultValue = "PT1M")
+    Duration maxAge;
+
+    private volatile boolean probedUp;
+    private boolean[] outcomes;
+    private long[] recordedAt;
+    private int next;
+    private int calls;
+
+    @Scheduled(every = "{baggage-service.health.probe-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> probe() {
+        return baggageClientResource.readinessCheck()
+                .ifNoItem().after(probeTimeout).fail()
+                .onItem().transform(response -> response.getStatus() == HealthCheckResponse.Status.UP)
+                .onFailure().recoverWithItem(false)
+                .invoke(up -> probedUp = up)
+                .replaceWithVoid();
+    }
+
+    /**
+     * Track the outcome of a real call to baggage service
+     *
+     * @param call call to baggage service
+     * @return the same call
+     */
+    public <T> Uni<T> observe(Uni<T> call) {
+        return call
+                .onItem().invoke(() -> record(true))
+                .onFailure().invoke(() -> record(false));
+    }
+
+    private synchronized void record(boolean success) {
+        if (outcomes == null) {
+            outcomes = new boolean[windowSize];
+            recordedAt = new long[windowSize];
+        }
+        outcomes[next] = success;
+        recordedAt[next] = System.currentTimeMillis();
+        next = (next + 1) % outcomes.length;
+        calls = Math.min(calls + 1, outcomes.length);
+    }
+
+    private synchronized boolean recentCallsFailing() {
+        var since = System.currentTimeMillis() - maxAge.toMillis();
+        int recent = 0;
+        int failures = 0;
+        for (int i = 0; i < calls; i++) {
+            if (recordedAt[i] >= since) {
+                recent++;
+                if (!outcomes[i]) {
+                    failures++;
+                }
+            }
+        }
+        return recent >= minCalls && failures >= failureRatio * recent;
+    }
+
+    /**
+     * Forget the outcomes of all recent calls
+     */
+    synchronized void reset() {
+        outcomes = null;
+        recordedAt = null;
+        next = 0;
+        calls = 0;
+    }
+
     @Override
     public Uni<HealthCheckResponse> call() {
-        return baggageClientResource.readinessCheck()
-                .onItem().transform(response -> {
-                    if (response.getStatus() == HealthCheckResponse.Status.DOWN) {
-                        return HealthCheckResponse.down("Baggage service is not ready");
-                    } else {
-                        return HealthCheckResponse.up("Baggage service is ready");
-                    }
-                })
-                .onFailure().recoverWithItem(HealthCheckResponse.down("Baggage service is not ready"));
+        if (!probedUp) {
+            return Uni.createFrom().item(HealthCheckResponse.down("Baggage service is not ready"));
+        }
+        if (recentCallsFailing()) {
+            return Uni.createFrom().item(HealthCheckResponse.down("Baggage service calls are failing"));
+        }
+        return Uni.createFrom().item(HealthCheckResponse.up("Baggage service is ready"));
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,35 @@ package cz.muni.fi.airportmanager.passengerservice.kafka.consumer;
 
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStateChange;
+import cz.muni.fi.airportmanager.passengerservice.service.BaggageProjection;
 import cz.muni.fi.airportmanager.passengerservice.service.PassengerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.api.KafkaRecordBatch;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 
 @ApplicationScoped
 public class BaggageStateChangeConsumer {
@@ -15,17 +38,116 @@ public class BaggageStateChangeConsumer {
     @Inject
     PassengerService passengerService;
 
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    ProcessedEventWindow processedEvents;
+
+    @Inject
+    BaggageProjection baggageProjection;
+
     /**
-     * Process baggage state change
+     * Number of lanes processed in parallel. Records of one passenger always go to the same lane.
+     */
+    @ConfigProperty(name = "baggage-state-change.concurrency", defaultValue = "4")
+    int concurrency;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private Counter duplicates;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("baggage_state_change_in_flight", inFlight, AtomicInteger::get)
+                .description("Number of baggage state change lanes being written right now")
+                .register(registry);
+        Gauge.builder("baggage_state_change_pending", pending, AtomicLong::get)
+                .description("Number of received baggage state changes that are not acknowledged yet")
+                .register(registry);
+        duplicates = Counter.builder("baggage_state_change_duplicates")
+                .description("Number of baggage state changes dropped as redelivered or without a passenger")
+                .register(registry);
+    }
+
+    /**
+     * Process a batch of baggage state changes. Records are split into lanes by passenger id, lanes are written
+     * in parallel, each in its own transaction, so changes of one passenger keep their order.
+     * Events that were stored recently are dropped up front, the ids of stored events are remembered
+     * once their lane commits.
+     * The batch is acknowledged (so its offsets can be committed) only after all lanes commit.
+     * Every change is applied to the local baggage projection right away, applying a change twice is harmless.
      *
-     * @param baggageStateChange baggage state change
+     * @param records baggage state changes in the order they were published
      */
     @Incoming("baggage-state-change")
-    public Uni<Void> process(BaggageStateChange baggageStateChange) {
-        var notification = new Notification();
-        notification.passengerId = baggageStateChange.passengerId;
-        notification.message = "Baggage state changed to " + baggageStateChange.newStatus + " for baggage " + baggageStateChange.baggageId;
-        return passengerService.addNotificationForPassenger(baggageStateChange.passengerId, notification);
+    public Uni<Void> process(KafkaRecordBatch<Long, BaggageStateChange> records) {
+        var size = records.getRecords().size();
+        pending.addAndGet(size);
+        records.getRecords().forEach(record -> baggageProjection.apply(record.getPayload()));
+        var lanes = lanes(records.getRecords(), concurrency, processedEvents::contains);
+        duplicates.increment(size - lanes.stream().mapToInt(List::size).sum());
+        return Multi.createFrom().iterable(lanes)
+                .onItem().transformToUni(lane -> onNewContext(() -> {
+                    inFlight.incrementAndGet();
+                    return passengerService.addNotificationsForPassengers(lane)
+                            .invoke(() -> processedEvents.addAll(eventIds(lane)))
+                            .eventually(inFlight::decrementAndGet);
+                }))
+                .merge(concurrency)
+                .collect().last()
+                .onItem().transformToUni(ignored -> Uni.createFrom().completionStage(records.ack()))
+                .onFailure().recoverWithUni(failure -> Uni.createFrom().completionStage(records.nack(failure)))
+                .eventually(() -> {
+                    pending.addAndGet(-size);
+                });
+    }
+
+    /**
+     * Split records into at most the given number of lanes of notifications.
+     * The lane is chosen by the record key, so all changes of one passenger end up in one lane in their order.
+     * Records without a passenger, already processed events and repeated events within the batch are skipped.
+     */
+    static List<List<Notification>> lanes(List<KafkaRecord<Long, BaggageStateChange>> records, int concurrency, Predicate<UUID> processed) {
+        var lanes = new ArrayList<List<Notification>>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        var seen = new HashSet<UUID>();
+        for (KafkaRecord<Long, BaggageStateChange> record : records) {
+            var change = record.getPayload();
+            if (change == null || change.passengerId == null) {
+                continue;
+            }
+            if (change.eventId != null && (processed.test(change.eventId) || !seen.add(change.eventId))) {
+                continue;
+            }
+            var notification = new Notification();
+            notification.passengerId = change.passengerId;
+            notification.eventId = change.eventId;
+            notification.message = "Baggage state changed to " + change.newStatus + " for baggage " + change.baggageId;
+            var key = record.getKey() != null ? record.getKey() : change.passengerId;
+            lanes.get(Math.floorMod(Long.hashCode(key), concurrency)).add(notification);
+        }
+        lanes.removeIf(List::isEmpty);
+        return lanes;
+    }
+
+    private static List<UUID> eventIds(List<Notification> notifications) {
+        return notifications.stream().map(notification -> notification.eventId).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Run the work on a new duplicated context, so every lane gets its own session and transaction
+     */
+    private Uni<Void> onNewContext(Supplier<Uni<Void>> work) {
+        Context context = VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext());
+        VertxContextSafetyToggle.setContextSafe(context, true);
+        return Uni.createFrom().emitter(emitter -> context.runOnContext(ignored ->
+                work.get().subscribe().with(emitter::complete, emitter::fail)));
     }
 
 }
@@ -0,0 +1,58 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.consumer;
+
+import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.FlightStatus;
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.FlightStatusChange;
+import cz.muni.fi.airportmanager.passengerservice.service.PassengerService;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+
+@ApplicationScoped
+public class FlightStatusChangeConsumer {
+
+    @Inject
+    PassengerService passengerService;
+
+    /**
+     * Process a batch of flight status changes. Every change is announced, in the order the changes happened,
+     * and notifications for the whole batch are written in one transaction. Cancellations are skipped,
+     * passengers are notified about them by the flight cancellation gRPC service.
+     * A redelivered change maps to the same event id, so it is not announced twice.
+     *
+     * @param flightStatusChanges flight status changes in the order they were published
+     */
+    @Incoming("flight-status-change")
+    public Uni<Void> process(List<FlightStatusChange> flightStatusChanges) {
+        var broadcasts = flightStatusChanges.stream()
+                .filter(change -> change.newStatus != FlightStatus.CANCELLED)
+                // stable sort, changes with the same time keep the order they were published in
+                .sorted(Comparator.comparing((FlightStatusChange change) -> change.changedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(change -> {
+                    var notification = Notification.broadcast(change.flightId, "Status of your flight " + change.flightId + " changed to " + change.newStatus);
+                    notification.eventId = eventId(change);
+                    return notification;
+                })
+                .toList();
+        return passengerService.addNotificationsByFlightIds(broadcasts).replaceWithVoid();
+    }
+
+    /**
+     * Id of the change derived from its content, the producer does not assign one
+     */
+    private static UUID eventId(FlightStatusChange change) {
+        if (change.changedAt == null) {
+            return null;
+        }
+        var key = "flight-status-change:" + change.flightId + ":" + change.newStatus + ":" + change.changedAt.getTime();
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
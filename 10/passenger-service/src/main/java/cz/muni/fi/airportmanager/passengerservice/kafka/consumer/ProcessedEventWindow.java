@@ -0,0 +1,48 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.consumer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded window of ids of recently stored events. Redelivered events found here are dropped
+ * before any transaction is opened, older replays are caught by the unique event id of the notification.
+ */
+@ApplicationScoped
+public class ProcessedEventWindow {
+
+    @ConfigProperty(name = "baggage-state-change.dedup-window", defaultValue = "100000")
+    int capacity;
+
+    private final Map<UUID, Boolean> events = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    /**
+     * Check whether the event has been stored recently
+     *
+     * @param eventId event id
+     * @return true if the event is in the window
+     */
+    public synchronized boolean contains(UUID eventId) {
+        return events.get(eventId) != null;
+    }
+
+    /**
+     * Remember stored events, evicting the least recently seen ones when the window is full
+     *
+     * @param eventIds ids of stored events
+     */
+    public synchronized void addAll(Collection<UUID> eventIds) {
+        for (UUID eventId : eventIds) {
+            events.put(eventId, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.deserializer;
+
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStateChange;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * Batch consumers are not covered by the serializer auto-detection, so the deserializer is configured explicitly
+ */
+public class BaggageStateChangeDeserializer extends ObjectMapperDeserializer<BaggageStateChange> {
+    public BaggageStateChangeDeserializer() {
+        super(BaggageStateChange.class);
+    }
+}
@@ -0,0 +1,13 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.deserializer;
+
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.FlightStatusChange;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * Batch consumers are not covered by the serializer auto-detection, so the deserializer is configured explicitly
+ */
+public class FlightStatusChangeDeserializer extends ObjectMapperDeserializer<FlightStatusChange> {
+    public FlightStatusChangeDeserializer() {
+        super(FlightStatusChange.class);
+    }
+}
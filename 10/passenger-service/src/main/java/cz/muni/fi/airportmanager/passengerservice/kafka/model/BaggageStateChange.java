@@ -1,11 +1,21 @@
 package cz.muni.fi.airportmanager.passengerservice.kafka.model;
 
 
+import java.util.UUID;
 
 public class BaggageStateChange {
+    /**
+     * Unique id of the event, used to drop redelivered events
+     */
+    public UUID eventId;
+    /**
+     * Position of the change among the state changes of the baggage
+     */
+    public long sequence;
     public Long baggageId;
     public Long passengerId;
     public BaggageStatus newStatus;
+    public int weight;
 
     public BaggageStateChange() {
     }
@@ -19,9 +29,12 @@ public class BaggageStateChange {
     @Override
     public String toString() {
         return "BaggageStateChange{" +
-                "baggageId=" + baggageId +
+                "eventId=" + eventId +
+                ", sequence=" + sequence +
+                ", baggageId=" + baggageId +
                 ", passengerId=" + passengerId +
                 ", newStatus=" + newStatus +
+                ", weight=" + weight +
                 '}';
     }
 }
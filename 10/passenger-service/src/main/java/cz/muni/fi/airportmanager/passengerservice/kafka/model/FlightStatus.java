@@ -0,0 +1,5 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.model;
+
+public enum FlightStatus {
+    ACTIVE, BOARDING, CANCELLED, DELAYED, COMPLETED
+}
@@ -0,0 +1,28 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.model;
+
+
+import java.util.Date;
+
+public class FlightStatusChange {
+    public Long flightId;
+    public FlightStatus newStatus;
+    public Date changedAt;
+
+    public FlightStatusChange() {
+    }
+
+    public FlightStatusChange(Long flightId, FlightStatus newStatus, Date changedAt) {
+        this.flightId = flightId;
+        this.newStatus = newStatus;
+        this.changedAt = changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightStatusChange{" +
+                "flightId=" + flightId +
+                ", newStatus=" + newStatus +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+}
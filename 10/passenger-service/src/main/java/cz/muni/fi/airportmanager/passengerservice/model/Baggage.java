@@ -1,8 +1,15 @@
 package cz.muni.fi.airportmanager.passengerservice.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class Baggage {
     public Long id;
     public int weight;
     public Long passengerId;
     public BaggageStatus status;
+    /**
+     * Position of the last state change of the baggage, only read from baggage service
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    public long stateSequence;
 }
@@ -1,8 +1,32 @@
 package cz.muni.fi.airportmanager.passengerservice.model;
 
+import java.util.Objects;
+
 public class CreatePassengerDto {
     public String firstName;
     public String lastName;
     public String email;
     public Long flightId;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CreatePassengerDto that = (CreatePassengerDto) o;
+
+        if (!Objects.equals(firstName, that.firstName)) return false;
+        if (!Objects.equals(lastName, that.lastName)) return false;
+        if (!Objects.equals(email, that.email)) return false;
+        return Objects.equals(flightId, that.flightId);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = firstName != null ? firstName.hashCode() : 0;
+        result = 31 * result + (lastName != null ? lastName.hashCode() : 0);
+        result = 31 * result + (email != null ? email.hashCode() : 0);
+        result = 31 * result + (flightId != null ? flightId.hashCode() : 0);
+        return result;
+    }
 }
@@ -4,6 +4,11 @@ public class NotificationDto {
     public Long id;
     public String message;
     public String email;
+    /**
+     * Id of the passenger the notification is listed for, together with the notification id it marks
+     * the position in the list
+     */
+    public Long passengerId;
 
     public NotificationDto(Long id, String message, String email) {
         this.id = id;
@@ -11,6 +16,11 @@ public class NotificationDto {
         this.email = email;
     }
 
+    public NotificationDto(Long id, String message, String email, Long passengerId) {
+        this(id, message, email);
+        this.passengerId = passengerId;
+    }
+
     public NotificationDto() {
     }
 }
@@ -0,0 +1,25 @@
+package cz.muni.fi.airportmanager.passengerservice.model;
+
+import java.util.Objects;
+
+public class PassengerDto extends CreatePassengerDto {
+    public Long id;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+
+        PassengerDto that = (PassengerDto) o;
+
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (id != null ? id.hashCode() : 0);
+        return result;
+    }
+}
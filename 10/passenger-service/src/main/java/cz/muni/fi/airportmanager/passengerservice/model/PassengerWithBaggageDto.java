@@ -1,5 +1,7 @@
 package cz.muni.fi.airportmanager.passengerservice.model;
 
+import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
+
 import java.util.List;
 
 public class PassengerWithBaggageDto {
@@ -9,4 +11,25 @@ public class PassengerWithBaggageDto {
     public String email;
     public Long flightId;
     public List<Baggage> baggage;
+    /**
+     * Whether the baggage is the last known list, served while baggage service is unavailable
+     */
+    public boolean baggageStale;
+
+    public static PassengerWithBaggageDto of(Passenger passenger, List<Baggage> baggage, boolean baggageStale) {
+        var passengerWithBaggage = of(passenger, baggage);
+        passengerWithBaggage.baggageStale = baggageStale;
+        return passengerWithBaggage;
+    }
+
+    public static PassengerWithBaggageDto of(Passenger passenger, List<Baggage> baggage) {
+        var passengerWithBaggage = new PassengerWithBaggageDto();
+        passengerWithBaggage.id = passenger.getId();
+        passengerWithBaggage.firstName = passenger.getFirstName();
+        passengerWithBaggage.lastName = passenger.getLastName();
+        passengerWithBaggage.email = passenger.getEmail();
+        passengerWithBaggage.flightId = passenger.getFlightId();
+        passengerWithBaggage.baggage = baggage;
+        return passengerWithBaggage;
+    }
 }
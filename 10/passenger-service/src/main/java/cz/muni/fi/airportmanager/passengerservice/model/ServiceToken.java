@@ -0,0 +1,12 @@
+package cz.muni.fi.airportmanager.passengerservice.model;
+
+public class ServiceToken {
+    /**
+     * Signed token, sent as a bearer token
+     */
+    public String token;
+    /**
+     * Expiration time of the token in seconds since the epoch
+     */
+    public long expiresAt;
+}
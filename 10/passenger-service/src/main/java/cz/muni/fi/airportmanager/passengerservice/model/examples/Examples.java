@@ -10,8 +10,7 @@ public class Examples {
                             "firstName": "John",
                             "lastName": "Doe",
                             "email": "john@gmail.com",
-                            "flightId": 1,
-                            "notifications": []
+                            "flightId": 1
             }
             """;
 
@@ -22,7 +21,6 @@ public class Examples {
                             "lastName": "Doe",
                             "email": "john@gmail.com",
                             "flightId": 1,
-                            "notifications": [],
                             "baggage": [
                                 {
                                     "id": 1,
@@ -30,7 +28,8 @@ public class Examples {
                                     "passengerId": 1,
                                     "status": "CHECKED_IN"
                                 }
-                            ]
+                            ],
+                            "baggageStale": false
             }
             """;
 
@@ -42,27 +41,14 @@ public class Examples {
                     "firstName": "John",
                     "lastName": "Doe",
                     "email": "john@gmail.com",
-                    "flightId": 1,
-                    "notifications": [
-                      {
-                        "id": 1,
-                        "message": "Uknown",
-                        "passengerId": 1
-                      },
-                      {
-                        "id": 2,
-                        "message": "Your flight 1 has been cancelled. Reason: Unknown",
-                        "passengerId": 1
-                      }
-                    ]
+                    "flightId": 1
                 },
                 {
                     "id": 2
                     "firstName": "Jane",
                     "lastName": "Doe",
                     "email": "jane@gmail.com",
-                    "flightId": 1,
-                    "notifications": []
+                    "flightId": 1
                 }
             ]
             """;
@@ -80,11 +66,13 @@ public class Examples {
                 {
                     "id": 1,
                     "email": "john@email.com",
+                    "passengerId": 1,
                     "message": "Notification message"
                 },
                 {
                     "id": 2,
                     "email": "jane@email.com",
+                    "passengerId": 2,
                     "message": "Notification message"
                 }
             ]
@@ -2,55 +2,201 @@ package cz.muni.fi.airportmanager.passengerservice.repository;
 
 
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
+import cz.muni.fi.airportmanager.passengerservice.entity.NotificationCounter;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
 import cz.muni.fi.airportmanager.passengerservice.model.NotificationDto;
 import io.quarkus.hibernate.reactive.panache.PanacheRepository;
 import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import org.hibernate.reactive.mutiny.Mutiny;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class PassengerRepository implements PanacheRepository<Passenger> {
 
+    /**
+     * Personal notifications of a passenger merged with broadcasts to the passenger's flight sent since
+     * the passenger joined it
+     */
+    private static final String PASSENGER_INBOX = """
+            from Notification n, Passenger p
+            where p.id = :passengerId
+            and (n.passengerId = p.id or (n.flightId = p.flightId and n.createdAt >= p.createdAt))
+            """;
+
+    /**
+     * Notifications of the inbox committed after the last notification the passenger has read
+     */
+    private static final String UNREAD = " and n.commitOrder > p.readUpTo";
 
     /**
-     * Find all notifications for a passenger
+     * Find a page of notifications for a passenger, both personal and broadcast to the passenger's flight,
+     * starting right after the given notification id (keyset pagination)
      *
      * @param passengerId passenger id
-     * @return list of notifications
+     * @param afterId     id of the last notification of the previous page (exclusive)
+     * @param limit       maximum number of notifications in the page
+     * @return list of notifications ordered by id
      */
     @WithTransaction
-    public Uni<List<Notification>> findNotificationsForPassenger(Long passengerId) {
-        return findById(passengerId).onItem().transform(passenger -> {
+    public Uni<List<Notification>> findNotificationsForPassenger(Long passengerId, long afterId, int limit) {
+        return getSession().chain(session -> session
+                .createQuery("select n " + PASSENGER_INBOX + " and n.id > :afterId order by n.id", Notification.class)
+                .setParameter("passengerId", passengerId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * Find notifications the passenger has not read yet. Read state is a cursor on the commit order,
+     * so a notification that commits after later ones were read is still unread.
+     *
+     * @param passengerId passenger id
+     * @return list of unread notifications in the order they were committed
+     */
+    @WithTransaction
+    public Uni<List<Notification>> findUnreadNotificationsForPassenger(Long passengerId) {
+        return getSession().chain(session -> session
+                .createQuery("select n " + PASSENGER_INBOX + UNREAD + " order by n.commitOrder", Notification.class)
+                .setParameter("passengerId", passengerId)
+                .getResultList());
+    }
+
+    /**
+     * Mark the notifications of the passenger's inbox as read up to the given notification, in the order
+     * of the unread notifications. Only the cursor of the passenger is moved, whatever the number of notifications.
+     *
+     * @param passengerId passenger id
+     * @param upTo        id of the last read notification
+     * @return true if the passenger exists
+     */
+    @WithTransaction
+    public Uni<Boolean> markNotificationsRead(Long passengerId, long upTo) {
+        // The passenger is locked, so concurrent calls cannot move the cursor back
+        return findById(passengerId, LockModeType.PESSIMISTIC_WRITE).onItem().transformToUni(passenger -> {
             if (passenger == null) {
-                return List.of();
+                return Uni.createFrom().item(false);
             }
-            return passenger.getNotifications();
+            return getSession()
+                    .chain(session -> session
+                            .createQuery("select coalesce(max(n.commitOrder), 0L) from Notification n where n.id = :upTo", Long.class)
+                            .setParameter("upTo", upTo)
+                            .getSingleResult())
+                    .onItem().invoke(commitOrder -> passenger.setReadUpTo(Math.max(passenger.getReadUpTo(), commitOrder)))
+                    .replaceWith(true);
         });
     }
 
+    /**
+     * Delete a passenger together with the passenger's personal notifications.
+     * Everything is removed with bulk deletes, so the lazy notification collection is never loaded
+     * to cascade the removal.
+     *
+     * @param passengerId passenger id
+     * @return true if the passenger existed
+     */
+    @WithTransaction
+    public Uni<Boolean> deletePassenger(Long passengerId) {
+        return Notification.delete("passengerId", passengerId)
+                .chain(() -> delete("id", passengerId))
+                .onItem().transform(deleted -> deleted > 0);
+    }
+
+    /**
+     * Delete all passengers together with their personal notifications.
+     * Broadcasts to flights are kept.
+     *
+     * @return number of deleted passengers
+     */
+    @WithTransaction
+    public Uni<Long> deleteAllPassengers() {
+        return Notification.delete("passengerId is not null")
+                .chain(() -> deleteAll());
+    }
 
     /**
-     * Add notification to a passengers with given flight id
+     * Delete all notifications together with the read state of all passengers
+     *
+     * @return number of deleted notifications
+     */
+    @WithTransaction
+    public Uni<Long> deleteAllNotifications() {
+        return update("readUpTo = 0")
+                .chain(() -> Notification.deleteAll());
+    }
+
+    /**
+     * Add notification to a passengers with given flight id.
+     * The notification is stored once as a broadcast and merged into the passengers' inboxes when read.
      *
      * @param flightId     flight id
      * @param notification notification to add
+     * @return number of notified passengers
      */
     @WithTransaction
-    public Uni<Void> addNotificationByFlightId(Long flightId, Notification notification) {
-        // Find passengers by flightId
-        return find("flightId", flightId).list()
-                .onItem().transformToUni(passengers -> {
-                    // Add notification to each passenger
-                    for (Passenger passenger : passengers) {
-                        passenger.addNotification(notification);
-                    }
-                    // Persist changes
-                    return this.persist(passengers);
+    public Uni<Long> addNotificationByFlightId(Long flightId, Notification notification) {
+        notification.passengerId = null;
+        notification.flightId = flightId;
+        return assignCommitOrder(List.of(notification))
+                .chain(() -> Notification.persist(notification))
+                .chain(() -> countRecipients(List.of(notification)));
+    }
+
+    /**
+     * Add notifications to passengers of several flights at once. Broadcasts whose event has already been stored
+     * or appears earlier in the batch are dropped, so a redelivered batch does not notify the passengers twice.
+     *
+     * @param broadcasts broadcast notifications with flight id, in the order they should be stored
+     * @return number of notified passengers, a passenger counts once for every stored broadcast to the passenger's flight
+     */
+    @WithTransaction
+    public Uni<Long> addNotificationsByFlightIds(List<Notification> broadcasts) {
+        if (broadcasts.isEmpty()) {
+            return Uni.createFrom().item(0L);
+        }
+        var eventIds = broadcasts.stream().map(notification -> notification.eventId).filter(Objects::nonNull).collect(Collectors.toSet());
+        return getSession().chain(session -> findStoredEventIds(session, eventIds))
+                .onItem().transform(storedEvents -> {
+                    // drop stored events and events repeated within the batch
+                    var seen = new HashSet<>(storedEvents);
+                    return broadcasts.stream()
+                            .filter(notification -> notification.eventId == null || seen.add(notification.eventId))
+                            .toList();
                 })
-                .replaceWithVoid();
+                .onItem().transformToUni(filtered -> assignCommitOrder(filtered)
+                        .chain(() -> Notification.persist(filtered))
+                        .chain(() -> countRecipients(filtered)));
+    }
+
+    /**
+     * Count the passengers reached by the broadcasts, the broadcasts are not fanned out so their recipients are counted
+     */
+    private Uni<Long> countRecipients(List<Notification> broadcasts) {
+        if (broadcasts.isEmpty()) {
+            return Uni.createFrom().item(0L);
+        }
+        var flightIds = broadcasts.stream().map(notification -> notification.flightId).collect(Collectors.toSet());
+        return getSession()
+                .chain(session -> session
+                        .createQuery("select p.flightId, count(p) from Passenger p where p.flightId in :flightIds group by p.flightId", Object[].class)
+                        .setParameter("flightIds", flightIds)
+                        .getResultList())
+                .onItem().transform(rows -> {
+                    Map<Long, Long> passengersByFlight = new HashMap<>();
+                    rows.forEach(row -> passengersByFlight.put((Long) row[0], (Long) row[1]));
+                    return broadcasts.stream().mapToLong(notification -> passengersByFlight.getOrDefault(notification.flightId, 0L)).sum();
+                });
     }
 
     /**
@@ -64,17 +210,80 @@ public class PassengerRepository implements PanacheRepository<Passenger> {
     }
 
     /**
-     * Get list of notifications with passenger's email
+     * Find a page of notifications with passenger's email ordered by notification and passenger id,
+     * starting right after the given position (keyset pagination).
+     * A broadcast notification appears once for every passenger of its flight.
      *
+     * @param afterId          notification id of the last row of the previous page
+     * @param afterPassengerId passenger id of the last row of the previous page
+     * @param limit            maximum number of notifications in the page
      * @return list of notifications with passenger email
      */
-    public Uni<List<NotificationDto>> findNotificationsWithEmail() {
-        return listAll()
-                .onItem().transform(passengers -> passengers.stream()
-                        .flatMap(passenger -> passenger.getNotifications().stream()
-                                .map(notification -> new NotificationDto(notification.id, notification.message, passenger.getEmail()))
-                        ).toList()
-                );
+    @WithTransaction
+    public Uni<List<NotificationDto>> findNotificationsWithEmail(long afterId, long afterPassengerId, int limit) {
+        // Broadcasts are fanned out to the passengers of the flight here, at read time
+        return getSession().chain(session -> session
+                .createQuery("""
+                        select new cz.muni.fi.airportmanager.passengerservice.model.NotificationDto(n.id, n.message, p.email, p.id)
+                        from Notification n join Passenger p
+                        on n.passengerId = p.id or (n.flightId = p.flightId and n.createdAt >= p.createdAt)
+                        where n.id > :afterId or (n.id = :afterId and p.id > :afterPassengerId)
+                        order by n.id, p.id
+                        """, NotificationDto.class)
+                .setParameter("afterId", afterId)
+                .setParameter("afterPassengerId", afterPassengerId)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * Add notifications to several passengers at once. Notifications for passengers that do not exist
+     * and notifications whose event has already been stored are dropped.
+     *
+     * @param notifications notifications with passenger id, in the order they should be stored
+     */
+    @WithTransaction
+    public Uni<Void> addNotificationsForPassengers(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        var passengerIds = notifications.stream().map(notification -> notification.passengerId).collect(Collectors.toSet());
+        var eventIds = notifications.stream().map(notification -> notification.eventId).filter(Objects::nonNull).collect(Collectors.toSet());
+        return getSession().chain(session -> session
+                        .createQuery("select p.id from Passenger p where p.id in :ids", Long.class)
+                        .setParameter("ids", passengerIds)
+                        .getResultList()
+                        .chain(existingPassengers -> findStoredEventIds(session, eventIds)
+                                .onItem().transform(storedEvents -> notifications.stream()
+                                        .filter(notification -> existingPassengers.contains(notification.passengerId))
+                                        .filter(notification -> notification.eventId == null || !storedEvents.contains(notification.eventId))
+                                        .toList())))
+                .onItem().transformToUni(filtered -> assignCommitOrder(filtered)
+                        .chain(() -> Notification.persist(filtered)));
+    }
+
+    /**
+     * Give the notifications the next values of the commit order. The counter stays locked until the transaction
+     * commits, so notifications become visible in their commit order. Writers storing the very first notification
+     * at the same time race to create the counter, and all but one of them fail on its id.
+     */
+    private static Uni<Void> assignCommitOrder(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return NotificationCounter.<NotificationCounter>findById(NotificationCounter.ID, LockModeType.PESSIMISTIC_WRITE)
+                .onItem().ifNull().switchTo(() -> NotificationCounter.create().<NotificationCounter>persist())
+                .onItem().invoke(counter -> notifications.forEach(notification -> notification.commitOrder = ++counter.last))
+                .replaceWithVoid();
+    }
+
+    private static Uni<List<UUID>> findStoredEventIds(Mutiny.Session session, Set<UUID> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return session.createQuery("select n.eventId from Notification n where n.eventId in :ids", UUID.class)
+                .setParameter("ids", eventIds)
+                .getResultList();
     }
 
     /**
@@ -84,13 +293,15 @@ public class PassengerRepository implements PanacheRepository<Passenger> {
      * @param notification notification to add
      */
     public Uni<Void> addNotificationForPassenger(Long passengerId, Notification notification) {
-        return findById(passengerId
-        ).onItem().transform(passenger -> {
-            if (passenger != null) {
-                passenger.addNotification(notification);
-                return this.persist(passenger);
-            }
-            return null;
-        }).replaceWithVoid();
+        // The notification is persisted on its own, so the lazy collection of the passenger is never loaded
+        return count("id", passengerId)
+                .onItem().transformToUni(count -> {
+                    if (count == 0) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    notification.passengerId = passengerId;
+                    return assignCommitOrder(List.of(notification))
+                            .chain(() -> Notification.persist(notification));
+                });
     }
 }
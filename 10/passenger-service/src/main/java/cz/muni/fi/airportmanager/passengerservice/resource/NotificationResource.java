@@ -1,27 +1,29 @@
 package cz.muni.fi.airportmanager.passengerservice.resource;
 
-import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.model.NotificationDto;
 import cz.muni.fi.airportmanager.passengerservice.model.examples.Examples;
 import cz.muni.fi.airportmanager.passengerservice.service.NotificationService;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.resteasy.reactive.RestResponse;
 
-import java.util.List;
-
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 @Path("/notification")
@@ -32,24 +34,40 @@ public class NotificationResource {
     NotificationService notificationService;
 
     /**
-     * Get list of all notifications
+     * Get notifications, optionally a page of them (keyset pagination). The list is streamed as a chunked JSON array
+     * page by page. A broadcast notification is listed once for every passenger of its flight, so a page ends
+     * at a notification id and a passenger id.
      *
-     * @return list of all notifications
+     * @param after          notification id of the last notification of the previous page
+     * @param afterPassenger passenger id of the last notification of the previous page
+     * @param limit          maximum number of notifications in the page
+     * @return list of notifications
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    @Operation(summary = "Get list of all notifications")
+    @Operation(summary = "Get list of notifications")
     @APIResponse(
             responseCode = "200",
-            description = "List of all notifications",
+            description = "List of notifications ordered by notification and passenger id",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Notification.class, required = true),
-                    examples = @ExampleObject(name = "flight", value = Examples.VALID_NOTIFICATION_LIST)
+                    schema = @Schema(implementation = NotificationDto.class, type = SchemaType.ARRAY),
+                    examples = @ExampleObject(name = "notifications", value = Examples.VALID_NOTIFICATION_LIST)
             )
     )
-    public Uni<RestResponse<List<NotificationDto>>> list() {
-        return notificationService.listAll().onItem().transform(notifications -> RestResponse.status(Response.Status.OK, notifications));
+    @APIResponse(
+            responseCode = "400",
+            description = "Invalid limit"
+    )
+    public Multi<NotificationDto> list(
+            @Parameter(name = "after", description = "Notification id of the last notification of the previous page") @QueryParam("after") Long after,
+            @Parameter(name = "afterPassenger", description = "Passenger id of the last notification of the previous page") @QueryParam("afterPassenger") Long afterPassenger,
+            @Parameter(name = "limit", description = "Maximum number of notifications in the page") @QueryParam("limit") Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return notificationService.list(after == null ? 0 : after, afterPassenger == null ? 0 : afterPassenger,
+                limit == null ? Long.MAX_VALUE : limit);
     }
 
     /**
@@ -3,6 +3,7 @@ package cz.muni.fi.airportmanager.passengerservice.resource;
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
 import cz.muni.fi.airportmanager.passengerservice.model.CreatePassengerDto;
+import cz.muni.fi.airportmanager.passengerservice.model.PassengerDto;
 import cz.muni.fi.airportmanager.passengerservice.model.PassengerWithBaggageDto;
 import cz.muni.fi.airportmanager.passengerservice.model.examples.Examples;
 import cz.muni.fi.airportmanager.passengerservice.service.PassengerService;
@@ -10,13 +11,16 @@ import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.faulttolerance.Timeout;
@@ -57,11 +61,11 @@ public class PassengerResource {
             description = "List of all passengers",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Passenger.class, required = true),
+                    schema = @Schema(implementation = PassengerDto.class, required = true),
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_PASSENGER_LIST)
             )
     )
-    public Uni<RestResponse<List<Passenger>>> list() {
+    public Uni<RestResponse<List<PassengerDto>>> list() {
         return passengerService.listAll().onItem().transform(passengers -> RestResponse.status(Response.Status.OK, passengers));
     }
 
@@ -80,12 +84,12 @@ public class PassengerResource {
             description = "Created passenger",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Passenger.class, required = true),
+                    schema = @Schema(implementation = PassengerDto.class, required = true),
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_PASSENGER)
             )
     )
     @Counted(value = "passenger_create_count", description = "How many times passenger was created")
-    public Uni<RestResponse<Passenger>> create(
+    public Uni<RestResponse<PassengerDto>> create(
             @Schema(implementation = CreatePassengerDto.class, required = true)
             CreatePassengerDto passenger) {
         return passengerService.createPassenger(passenger)
@@ -107,7 +111,7 @@ public class PassengerResource {
             description = "Passenger with given id",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Passenger.class, required = true),
+                    schema = @Schema(implementation = PassengerDto.class, required = true),
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_PASSENGER)
             )
     )
@@ -116,7 +120,7 @@ public class PassengerResource {
             description = "Passenger with given id does not exist"
     )
     @Timeout(250)
-    public Uni<RestResponse<Passenger>> get(@Parameter(name = "id", required = true, description = "Passenger id") @PathParam("id") Long id) {
+    public Uni<RestResponse<PassengerDto>> get(@Parameter(name = "id", required = true, description = "Passenger id") @PathParam("id") Long id) {
         return passengerService.getPassenger(id)
                 .onItem().transform(passenger -> {
                     if (passenger == null) {
@@ -140,39 +144,129 @@ public class PassengerResource {
             description = "List of passengers for a flight",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Passenger.class, required = true),
+                    schema = @Schema(implementation = PassengerDto.class, required = true),
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_PASSENGER_LIST)
             )
     )
-    public Uni<RestResponse<List<Passenger>>> getPassengersForFlight(@Parameter(name = "flightId", required = true, description = "Flight id") @PathParam("flightId") Long flightId) {
+    public Uni<RestResponse<List<PassengerDto>>> getPassengersForFlight(@Parameter(name = "flightId", required = true, description = "Flight id") @PathParam("flightId") Long flightId) {
         return passengerService.getPassengersForFlight(flightId)
                 .onItem().transform(passengers -> RestResponse.status(Response.Status.OK, passengers));
     }
 
     /**
-     * Get all notifications for a passenger
+     * Get passengers for a flight with their baggage
+     *
+     * @param flightId flight id
+     * @return list of passengers for a flight with their baggage
+     */
+    @GET
+    @Path("/flight/{flightId}/with-baggage")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get passengers for a flight with their baggage")
+    @APIResponse(
+            responseCode = "200",
+            description = "List of passengers for a flight with their baggage",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = PassengerWithBaggageDto.class, required = true)
+            )
+    )
+    @Timed(value = "get_passengers_with_baggage_for_flight", description = "A measure of how long it takes to get passengers of a flight with baggage")
+    public Uni<RestResponse<List<PassengerWithBaggageDto>>> getPassengersWithBaggageForFlight(@Parameter(name = "flightId", required = true, description = "Flight id") @PathParam("flightId") Long flightId) {
+        return passengerService.getPassengersWithBaggageForFlight(flightId)
+                .onItem().transform(passengers -> RestResponse.status(Response.Status.OK, passengers));
+    }
+
+    /**
+     * Get a page of notifications for a passenger (keyset pagination)
+     *
      * @param passengerId passenger id
-     *                    @return list of notifications for a passenger
+     * @param after       id of the last notification of the previous page
+     * @param limit       maximum number of notifications in the page
+     * @return list of notifications for a passenger
      */
     @GET
     @Path("/{passengerId}/notifications")
     @Produces(MediaType.APPLICATION_JSON)
-    @Operation(summary = "Get all notifications for a passenger")
+    @Operation(summary = "Get a page of notifications for a passenger")
     @APIResponse(
             responseCode = "200",
             description = "List of notifications for a passenger",
             content = @Content(
                     mediaType = APPLICATION_JSON,
-                    schema = @Schema(implementation = Passenger.class, required = true),
+                    schema = @Schema(implementation = Notification.class, required = true),
                     examples = @ExampleObject(name = "flight", value = Examples.VALID_NOTIFICATION_LIST)
             )
     )
+    @APIResponse(
+            responseCode = "400",
+            description = "Invalid limit"
+    )
     @Counted(value = "notification_get_count", description = "How many times notifications were retrieved")
-    public Uni<RestResponse<List<Notification>>> getNotificationsForPassenger(@Parameter(name = "passengerId", required = true, description = "Passenger id") @PathParam("passengerId") Long passengerId) {
-        return passengerService.findNotificationsForPassenger(passengerId)
+    public Uni<RestResponse<List<Notification>>> getNotificationsForPassenger(
+            @Parameter(name = "passengerId", required = true, description = "Passenger id") @PathParam("passengerId") Long passengerId,
+            @Parameter(name = "after", description = "Id of the last notification of the previous page") @QueryParam("after") Long after,
+            @Parameter(name = "limit", description = "Maximum number of notifications in the page") @QueryParam("limit") Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return passengerService.findNotificationsForPassenger(passengerId, after == null ? 0 : after, limit == null ? Integer.MAX_VALUE : limit)
                 .onItem().transform(passengers -> RestResponse.status(Response.Status.OK, passengers));
     }
 
+    /**
+     * Get notifications a passenger has not read yet
+     *
+     * @param passengerId passenger id
+     * @return list of unread notifications for a passenger
+     */
+    @GET
+    @Path("/{passengerId}/notifications/unread")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get notifications a passenger has not read yet")
+    @APIResponse(
+            responseCode = "200",
+            description = "List of unread notifications for a passenger",
+            content = @Content(
+                    mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = Notification.class, required = true),
+                    examples = @ExampleObject(name = "notification", value = Examples.VALID_NOTIFICATION_LIST)
+            )
+    )
+    public Uni<RestResponse<List<Notification>>> getUnreadNotificationsForPassenger(@Parameter(name = "passengerId", required = true, description = "Passenger id") @PathParam("passengerId") Long passengerId) {
+        return passengerService.findUnreadNotificationsForPassenger(passengerId)
+                .onItem().transform(notifications -> RestResponse.status(Response.Status.OK, notifications));
+    }
+
+    /**
+     * Mark notifications of a passenger as read
+     *
+     * @param passengerId passenger id
+     * @param upTo        id of the last read notification
+     */
+    @PUT
+    @Path("/{passengerId}/notifications/read")
+    @Operation(summary = "Mark notifications of a passenger as read up to the given notification id")
+    @APIResponse(
+            responseCode = "200",
+            description = "Notifications marked as read"
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Passenger with given id does not exist"
+    )
+    public Uni<RestResponse<Void>> markNotificationsRead(
+            @Parameter(name = "passengerId", required = true, description = "Passenger id") @PathParam("passengerId") Long passengerId,
+            @Parameter(name = "upTo", required = true, description = "Id of the last read notification") @QueryParam("upTo") long upTo) {
+        return passengerService.markNotificationsRead(passengerId, upTo)
+                .onItem().transform(marked -> {
+                    if (marked) {
+                        return RestResponse.status(Response.Status.OK);
+                    }
+                    return RestResponse.status(Response.Status.NOT_FOUND);
+                });
+    }
+
     /**
      * Delete passenger
      *
@@ -0,0 +1,171 @@
+package cz.muni.fi.airportmanager.passengerservice.service;
+
+import cz.muni.fi.airportmanager.passengerservice.client.BaggageClientResource;
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStateChange;
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import cz.muni.fi.airportmanager.passengerservice.model.BaggageStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Local read model of baggage per passenger.
+ * It is loaded from a snapshot of baggage service on startup and kept up to date from baggage state changes.
+ * Every baggage keeps the version with the highest state sequence, so the snapshot and the changes can arrive
+ * in any order.
+ * <p>
+ * The snapshot is reloaded periodically. A reload drops baggage that is gone from baggage service, deletions
+ * are not published as state changes, and repairs changes a stopped or lagging consumer missed. The projection
+ * is only ready while its last snapshot is recent, otherwise callers fall back to baggage service.
+ */
+@ApplicationScoped
+public class BaggageProjection {
+
+    @RestClient
+    BaggageClientResource baggageClientResource;
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Whether to load the snapshot on startup, without it the projection is never ready
+     */
+    @ConfigProperty(name = "baggage-projection.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /**
+     * Age of the last snapshot after which the projection is no longer ready
+     */
+    @ConfigProperty(name = "baggage-projection.max-staleness", defaultValue = "PT3M")
+    Duration maxStaleness;
+
+    private final Map<Long, Baggage> baggageById = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> baggageIdsByPassenger = new ConcurrentHashMap<>();
+    // Ids of baggage changed since the current snapshot was requested, the snapshot may not contain them yet
+    private volatile Set<Long> changedSinceSnapshot = ConcurrentHashMap.newKeySet();
+    private volatile long loadedAt = -1;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("baggage_projection_size", baggageById, Map::size)
+                .description("Number of baggage in the local baggage projection")
+                .register(registry);
+        Gauge.builder("baggage_projection_ready", this, projection -> projection.isReady() ? 1 : 0)
+                .description("Whether the local baggage projection has loaded a recent snapshot")
+                .register(registry);
+    }
+
+    void bootstrap(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        baggageClientResource.getAllBaggage()
+                .onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(30)).indefinitely()
+                .subscribe().with(this::load);
+    }
+
+    @Scheduled(every = "{baggage-projection.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> refresh() {
+        if (!enabled || loadedAt < 0) {
+            return Uni.createFrom().voidItem();
+        }
+        changedSinceSnapshot = ConcurrentHashMap.newKeySet();
+        return baggageClientResource.getAllBaggage()
+                .onItem().invoke(this::load)
+                .onFailure().recoverWithNull()
+                .replaceWithVoid();
+    }
+
+    /**
+     * Apply a snapshot of baggage and mark the projection ready. Baggage missing from the snapshot is removed,
+     * unless it changed after the snapshot was requested.
+     *
+     * @param snapshot all baggage known to baggage service
+     */
+    void load(List<Baggage> snapshot) {
+        snapshot.forEach(this::apply);
+        var present = snapshot.stream().map(baggage -> baggage.id).collect(Collectors.toSet());
+        var changed = changedSinceSnapshot;
+        baggageById.values().removeIf(baggage -> {
+            if (present.contains(baggage.id) || changed.contains(baggage.id)) {
+                return false;
+            }
+            var passengerBaggage = baggageIdsByPassenger.get(baggage.passengerId);
+            if (passengerBaggage != null) {
+                passengerBaggage.remove(baggage.id);
+            }
+            return true;
+        });
+        loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Apply a baggage state change
+     *
+     * @param change baggage state change
+     */
+    public void apply(BaggageStateChange change) {
+        if (change == null || change.baggageId == null || change.passengerId == null) {
+            return;
+        }
+        var baggage = new Baggage();
+        baggage.id = change.baggageId;
+        baggage.passengerId = change.passengerId;
+        baggage.weight = change.weight;
+        baggage.status = change.newStatus == null ? null : BaggageStatus.valueOf(change.newStatus.name());
+        baggage.stateSequence = change.sequence;
+        changedSinceSnapshot.add(baggage.id);
+        apply(baggage);
+    }
+
+    private void apply(Baggage baggage) {
+        baggageById.merge(baggage.id, baggage, (known, update) -> update.stateSequence > known.stateSequence ? update : known);
+        baggageIdsByPassenger.computeIfAbsent(baggage.passengerId, ignored -> ConcurrentHashMap.newKeySet()).add(baggage.id);
+    }
+
+    /**
+     * @return whether a recent snapshot is loaded and the projection can answer queries
+     */
+    public boolean isReady() {
+        return loadedAt >= 0 && System.currentTimeMillis() - loadedAt <= maxStaleness.toMillis();
+    }
+
+    /**
+     * @return whether any snapshot was loaded, so the projection can serve baggage flagged as stale even when
+     * it is not ready
+     */
+    public boolean hasSnapshot() {
+        return loadedAt >= 0;
+    }
+
+    /**
+     * Get baggage of a passenger
+     *
+     * @param passengerId passenger id
+     * @return baggage of the passenger ordered by id, empty list if the passenger has no baggage
+     */
+    public List<Baggage> getBaggageForPassenger(Long passengerId) {
+        return baggageIdsByPassenger.getOrDefault(passengerId, Set.of()).stream()
+                .map(baggageById::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(baggage -> baggage.id))
+                .toList();
+    }
+}
@@ -1,14 +1,12 @@
 package cz.muni.fi.airportmanager.passengerservice.service;
 
-import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.model.NotificationDto;
 import cz.muni.fi.airportmanager.passengerservice.repository.PassengerRepository;
-import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-
-import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class NotificationService {
@@ -16,24 +14,42 @@ public class NotificationService {
     @Inject
     PassengerRepository passengerRepository;
 
+    @ConfigProperty(name = "notification.list.page-size", defaultValue = "500")
+    int pageSize;
+
 
     /**
-     * Delete all notifications
+     * Delete all notifications together with the read state of the passengers
      *
      * @return number of deleted notifications
      */
-    @WithTransaction
     public Uni<Long> deleteAll() {
-        return Notification.deleteAll();
+        return passengerRepository.deleteAllNotifications();
     }
 
     /**
-     * Get list of all notifications
+     * Stream notifications with passenger's email page by page, so at most one page is held in memory at a time.
+     * A broadcast notification appears once for every passenger of its flight, so a position in the stream is
+     * given by both the notification id and the passenger id.
      *
-     * @return list of all notifications
+     * @param afterId          notification id of the last notification of the previous page, 0 for the first page
+     * @param afterPassengerId passenger id of the last notification of the previous page, 0 for the first page
+     * @param limit            maximum number of notifications
+     * @return stream of notifications ordered by notification and passenger id
      */
-    @WithTransaction
-    public Uni<List<NotificationDto>> listAll() {
-        return passengerRepository.findNotificationsWithEmail();
+    public Multi<NotificationDto> list(long afterId, long afterPassengerId, long limit) {
+        int size = (int) Math.min(pageSize, limit);
+        return Multi.createBy().repeating()
+                .uni(() -> new long[]{afterId, afterPassengerId}, cursor -> passengerRepository.findNotificationsWithEmail(cursor[0], cursor[1], size)
+                        .onItem().invoke(page -> {
+                            if (!page.isEmpty()) {
+                                var last = page.get(page.size() - 1);
+                                cursor[0] = last.id;
+                                cursor[1] = last.passengerId;
+                            }
+                        }))
+                .whilst(page -> page.size() == size)
+                .onItem().transformToIterable(page -> page)
+                .select().first(limit);
     }
 }
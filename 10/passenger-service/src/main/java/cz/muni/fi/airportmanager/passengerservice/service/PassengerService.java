@@ -1,21 +1,29 @@
 package cz.muni.fi.airportmanager.passengerservice.service;
 
 import cz.muni.fi.airportmanager.passengerservice.client.BaggageClientResource;
+import cz.muni.fi.airportmanager.passengerservice.client.BaggageLookup;
+import cz.muni.fi.airportmanager.passengerservice.client.ResilientBaggageClient;
+import cz.muni.fi.airportmanager.passengerservice.client.RetryPolicies;
+import cz.muni.fi.airportmanager.passengerservice.client.RetryPolicy;
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
+import cz.muni.fi.airportmanager.passengerservice.health.BaggageServiceHealthCheck;
 import cz.muni.fi.airportmanager.passengerservice.model.CreatePassengerDto;
+import cz.muni.fi.airportmanager.passengerservice.model.PassengerDto;
 import cz.muni.fi.airportmanager.passengerservice.model.PassengerWithBaggageDto;
 import cz.muni.fi.airportmanager.passengerservice.repository.PassengerRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.common.WithTransaction;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
 import java.util.Base64;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @ApplicationScoped // This bean will be created once per application and live as long as the application lives
 public class PassengerService {
@@ -26,12 +34,28 @@ public class PassengerService {
     @RestClient
     BaggageClientResource baggageClientResource;
 
+    @Inject
+    @Named(RetryPolicies.BAGGAGE_SERVICE)
+    RetryPolicy baggageRetryPolicy;
+
+    @Inject
+    BaggageServiceHealthCheck baggageServiceHealthCheck;
+
+    @Inject
+    ResilientBaggageClient resilientBaggageClient;
+
+    @Inject
+    BaggageProjection baggageProjection;
+
     @ConfigProperty(name = "baggage-service.rest.username")
     String username;
 
     @ConfigProperty(name = "baggage-service.rest.password")
     String password;
 
+    @ConfigProperty(name = "passenger.notifications.page-size", defaultValue = "100")
+    int notificationsPageSize;
+
 
     /**
      * Get list of all passengers
@@ -39,8 +63,8 @@ public class PassengerService {
      * @return list of all passengers
      */
     @WithTransaction
-    public Uni<List<Passenger>> listAll() {
-        return passengerRepository.listAll();
+    public Uni<List<PassengerDto>> listAll() {
+        return passengerRepository.listAll().onItem().transform(PassengerService::toDtos);
     }
 
     /**
@@ -50,8 +74,8 @@ public class PassengerService {
      * @return passenger with given id
      */
     @WithTransaction
-    public Uni<Passenger> getPassenger(Long id) {
-        return passengerRepository.findById(id);
+    public Uni<PassengerDto> getPassenger(Long id) {
+        return passengerRepository.findById(id).onItem().ifNotNull().transform(Passenger::toDto);
     }
 
     /**
@@ -61,8 +85,8 @@ public class PassengerService {
      * @return list of passengers for given flight id
      */
     @WithTransaction
-    public Uni<List<Passenger>> getPassengersForFlight(Long flightId) {
-        return passengerRepository.findPassengersForFlight(flightId);
+    public Uni<List<PassengerDto>> getPassengersForFlight(Long flightId) {
+        return passengerRepository.findPassengersForFlight(flightId).onItem().transform(PassengerService::toDtos);
     }
 
     /**
@@ -72,26 +96,26 @@ public class PassengerService {
      * @return created passenger
      */
     @WithTransaction
-    public Uni<Passenger> createPassenger(CreatePassengerDto passenger) {
-        return passengerRepository.persist(Passenger.fromDto(passenger));
+    public Uni<PassengerDto> createPassenger(CreatePassengerDto passenger) {
+        return passengerRepository.persist(Passenger.fromDto(passenger)).onItem().transform(Passenger::toDto);
     }
 
     /**
-     * Delete passenger
+     * Delete passenger together with the passenger's notifications
      *
      * @param id passenger id
      */
     @WithTransaction
     public Uni<Boolean> deletePassenger(Long id) {
-        return passengerRepository.deleteById(id);
+        return passengerRepository.deletePassenger(id);
     }
 
     /**
-     * Delete all passengers
+     * Delete all passengers together with their notifications
      */
     @WithTransaction
     public Uni<Long> deleteAllPassengers() {
-        return passengerRepository.deleteAll();
+        return passengerRepository.deleteAllPassengers();
     }
 
     /**
@@ -99,12 +123,24 @@ public class PassengerService {
      *
      * @param flightId     flight id
      * @param notification notification to add
+     * @return number of notified passengers
      */
     @WithTransaction
-    public Uni<Void> addNotificationByFlightId(Long flightId, Notification notification) {
+    public Uni<Long> addNotificationByFlightId(Long flightId, Notification notification) {
         return passengerRepository.addNotificationByFlightId(flightId, notification);
     }
 
+    /**
+     * Add notifications to passengers of several flights at once
+     *
+     * @param broadcasts broadcast notifications with flight id
+     * @return number of notified passengers
+     */
+    @WithTransaction
+    public Uni<Long> addNotificationsByFlightIds(List<Notification> broadcasts) {
+        return passengerRepository.addNotificationsByFlightIds(broadcasts);
+    }
+
     /**
      * Add notification to a passenger
      * @param passengerId passenger id
@@ -118,14 +154,49 @@ public class PassengerService {
 
 
     /**
-     * Get all notifications for passenger
+     * Add notifications to several passengers in one transaction
+     *
+     * @param notifications notifications with passenger id
+     */
+    @WithTransaction
+    public Uni<Void> addNotificationsForPassengers(List<Notification> notifications) {
+        return passengerRepository.addNotificationsForPassengers(notifications);
+    }
+
+    /**
+     * Get a page of notifications for passenger
+     *
+     * @param passengerId passenger id
+     * @param after       id of the last notification of the previous page (exclusive), 0 for the first page
+     * @param limit       maximum number of notifications, capped by the configured page size
+     * @return list of notifications for passenger ordered by id
+     */
+    @WithTransaction
+    public Uni<List<Notification>> findNotificationsForPassenger(Long passengerId, long after, int limit) {
+        return passengerRepository.findNotificationsForPassenger(passengerId, after, Math.min(limit, notificationsPageSize));
+    }
+
+    /**
+     * Get notifications the passenger has not read yet
+     *
+     * @param passengerId passenger id
+     * @return list of unread notifications for passenger
+     */
+    @WithTransaction
+    public Uni<List<Notification>> findUnreadNotificationsForPassenger(Long passengerId) {
+        return passengerRepository.findUnreadNotificationsForPassenger(passengerId);
+    }
+
+    /**
+     * Mark notifications of a passenger as read
      *
      * @param passengerId passenger id
-     * @return list of notifications for passenger
+     * @param upTo        id of the last read notification
+     * @return true if the passenger exists
      */
     @WithTransaction
-    public Uni<List<Notification>> findNotificationsForPassenger(Long passengerId) {
-        return passengerRepository.findNotificationsForPassenger(passengerId);
+    public Uni<Boolean> markNotificationsRead(Long passengerId, long upTo) {
+        return passengerRepository.markNotificationsRead(passengerId, upTo);
     }
 
     /**
@@ -135,25 +206,61 @@ public class PassengerService {
      * @return passenger with baggage
      * @throws RuntimeException if baggage service fails
      */
-    @WithTransaction
-    // TODO add retries with maxRetries set to 4 and delay to 500 ms
-    @Retry(maxRetries = 4, delay = 500)
     public Uni<PassengerWithBaggageDto> getPassengerWithBaggage(Long passengerId) {
-        var passengerWithBaggage = new PassengerWithBaggageDto();
-
-        return passengerRepository.findById(passengerId)
+        // Baggage service is called after the transaction ends, so a slow or retried call does not hold a connection
+        return Panache.withTransaction(() -> passengerRepository.findById(passengerId))
                 .onItem().transformToUni(passenger ->
-                        baggageClientResource.getBaggageForPassengerIdWithAuth(passenger.getId())
-                                .onItem().transform(baggage -> {
-                                            passengerWithBaggage.id = passenger.getId();
-                                            passengerWithBaggage.firstName = passenger.getFirstName();
-                                            passengerWithBaggage.lastName = passenger.getLastName();
-                                            passengerWithBaggage.email = passenger.getEmail();
-                                            passengerWithBaggage.flightId = passenger.getFlightId();
-                                            passengerWithBaggage.baggage = baggage;
-                                            return passengerWithBaggage;
-                                        }
-                                )
+                        getBaggageForPassenger(passenger.getId())
+                                .onItem().transform(lookup -> PassengerWithBaggageDto.of(passenger, lookup.baggage, lookup.stale))
                 );
     }
+
+    /**
+     * Get all passengers of a flight with their baggage.
+     * Passengers are loaded with one query and their baggage with one call to baggage service,
+     * which is made after the transaction loading the passengers ends.
+     *
+     * @param flightId flight id
+     * @return list of passengers of the flight with their baggage
+     * @throws RuntimeException if baggage service fails
+     */
+    public Uni<List<PassengerWithBaggageDto>> getPassengersWithBaggageForFlight(Long flightId) {
+        return Panache.withTransaction(() -> passengerRepository.findPassengersForFlight(flightId))
+                .onItem().transformToUni(passengers -> {
+                    if (passengers.isEmpty()) {
+                        return Uni.createFrom().item(List.<PassengerWithBaggageDto>of());
+                    }
+                    if (baggageProjection.isReady()) {
+                        return Uni.createFrom().item(passengers.stream()
+                                .map(passenger -> PassengerWithBaggageDto.of(passenger, baggageProjection.getBaggageForPassenger(passenger.getId())))
+                                .toList());
+                    }
+                    var passengerIds = passengers.stream().map(Passenger::getId).toList();
+                    return baggageRetryPolicy.execute(() -> baggageServiceHealthCheck.observe(baggageClientResource.getBaggageForPassengerIdsWithAuth(passengerIds)))
+                            .onItem().transform(baggage -> {
+                                var baggageByPassenger = baggage.stream()
+                                        .collect(Collectors.groupingBy(item -> item.passengerId));
+                                passengerIds.forEach(passengerId -> resilientBaggageClient.remember(passengerId,
+                                        baggageByPassenger.getOrDefault(passengerId, List.of())));
+                                return passengers.stream()
+                                        .map(passenger -> PassengerWithBaggageDto.of(passenger,
+                                                baggageByPassenger.getOrDefault(passenger.getId(), List.of())))
+                                        .toList();
+                            });
+                });
+    }
+
+    /**
+     * Get baggage of a passenger from the local projection, or from baggage service while the projection is not ready
+     */
+    private Uni<BaggageLookup> getBaggageForPassenger(Long passengerId) {
+        if (baggageProjection.isReady()) {
+            return Uni.createFrom().item(BaggageLookup.fresh(baggageProjection.getBaggageForPassenger(passengerId)));
+        }
+        return resilientBaggageClient.getBaggage(passengerId);
+    }
+
+    private static List<PassengerDto> toDtos(List<Passenger> passengers) {
+        return passengers.stream().map(Passenger::toDto).toList();
+    }
 }
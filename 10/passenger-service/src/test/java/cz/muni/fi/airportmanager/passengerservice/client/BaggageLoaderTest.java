@@ -0,0 +1,96 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.health.BaggageServiceHealthCheck;
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaggageLoaderTest {
+
+    private BaggageLoader loader;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        loader = new BaggageLoader();
+        loader.baggageClientResource = Mockito.mock(BaggageClientResource.class);
+        loader.registry = registry;
+        loader.vertx = Vertx.vertx();
+        loader.batchWindow = Duration.ofMillis(20);
+        loader.maxBatchSize = 100;
+        loader.retryPolicy = new RetryPolicy("baggage-service", registry, 0, Duration.ZERO, Duration.ZERO, 0.1, 10);
+        loader.baggageServiceHealthCheck = new BaggageServiceHealthCheck();
+        loader.baggageServiceHealthCheck.windowSize = 20;
+        loader.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.vertx.close();
+    }
+
+    @Test
+    void shouldCoalesceAndBatchRequests() throws Exception {
+        Mockito.when(loader.baggageClientResource.getBaggageForPassengerIdsWithAuth(List.of(1L, 2L)))
+                .thenReturn(Uni.createFrom().item(List.of(baggage(10L, 1L), baggage(11L, 1L))));
+
+        var first = loader.load(1L).subscribeAsCompletionStage();
+        var same = loader.load(1L).subscribeAsCompletionStage();
+        var other = loader.load(2L).subscribeAsCompletionStage();
+
+        assertEquals(2, first.get(1, TimeUnit.SECONDS).size());
+        assertEquals(2, same.get(1, TimeUnit.SECONDS).size());
+        assertTrue(other.get(1, TimeUnit.SECONDS).isEmpty());
+        Mockito.verify(loader.baggageClientResource, Mockito.times(1)).getBaggageForPassengerIdsWithAuth(Mockito.anyList());
+        assertEquals(1.0, registry.counter("baggage_loader_coalesced").count());
+        assertEquals(1.0, registry.counter("baggage_loader_calls").count());
+    }
+
+    @Test
+    void shouldSendFullBatchRightAway() throws Exception {
+        loader.batchWindow = Duration.ofMinutes(1);
+        loader.maxBatchSize = 2;
+        Mockito.when(loader.baggageClientResource.getBaggageForPassengerIdsWithAuth(List.of(1L, 2L)))
+                .thenReturn(Uni.createFrom().item(List.of(baggage(10L, 2L))));
+
+        var first = loader.load(1L).subscribeAsCompletionStage();
+        var second = loader.load(2L).subscribeAsCompletionStage();
+
+        assertTrue(first.get(1, TimeUnit.SECONDS).isEmpty());
+        assertEquals(1, second.get(1, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void shouldFailAllCallersOfFailedBatch() {
+        Mockito.when(loader.baggageClientResource.getBaggageForPassengerIdsWithAuth(Mockito.anyList()))
+                .thenReturn(Uni.createFrom().failure(new RuntimeException("baggage service is down")));
+
+        var first = loader.load(1L).subscribeAsCompletionStage();
+        var second = loader.load(2L).subscribeAsCompletionStage();
+
+        assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+    }
+
+    private static Baggage baggage(Long id, Long passengerId) {
+        var baggage = new Baggage();
+        baggage.id = id;
+        baggage.passengerId = passengerId;
+        return baggage;
+    }
+}
@@ -0,0 +1,55 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.ServiceToken;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BaggageTokenProviderTest {
+
+    private BaggageTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new BaggageTokenProvider();
+        provider.baggageAuthClient = Mockito.mock(BaggageAuthClient.class);
+        provider.refreshBefore = Duration.ofSeconds(30);
+    }
+
+    @Test
+    void shouldReuseValidToken() {
+        Mockito.when(provider.baggageAuthClient.issueToken()).thenReturn(Uni.createFrom().item(token("first", 300)));
+
+        assertEquals("first", provider.getToken().await().indefinitely());
+        assertEquals("first", provider.getToken().await().indefinitely());
+
+        Mockito.verify(provider.baggageAuthClient, Mockito.times(1)).issueToken();
+    }
+
+    @Test
+    void shouldRefreshTokenShortlyBeforeExpiry() {
+        Mockito.when(provider.baggageAuthClient.issueToken())
+                .thenReturn(Uni.createFrom().item(token("expiring", 10)))
+                .thenReturn(Uni.createFrom().item(token("refreshed", 300)));
+
+        assertEquals("expiring", provider.getToken().await().indefinitely());
+        // still valid, served while the refresh runs
+        assertEquals("expiring", provider.getToken().await().indefinitely());
+        assertEquals("refreshed", provider.getToken().await().indefinitely());
+
+        Mockito.verify(provider.baggageAuthClient, Mockito.times(2)).issueToken();
+    }
+
+    private static ServiceToken token(String value, long validFor) {
+        var token = new ServiceToken();
+        token.token = value;
+        token.expiresAt = Instant.now().getEpochSecond() + validFor;
+        return token;
+    }
+}
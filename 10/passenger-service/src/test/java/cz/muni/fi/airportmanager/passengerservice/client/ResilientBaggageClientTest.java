@@ -0,0 +1,92 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import cz.muni.fi.airportmanager.passengerservice.service.BaggageProjection;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class ResilientBaggageClientTest {
+
+    @InjectMock
+    BaggageLoader baggageLoader;
+
+    @InjectMock
+    BaggageProjection baggageProjection;
+
+    @Inject
+    ResilientBaggageClient resilientBaggageClient;
+
+    @Inject
+    CircuitBreakerMaintenance circuitBreakerMaintenance;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerMaintenance.resetAll();
+    }
+
+    @Test
+    void shouldServeLastKnownBaggageWhenLookupFails() {
+        var baggage = new Baggage();
+        baggage.id = 1L;
+        baggage.passengerId = 100L;
+        Mockito.when(baggageLoader.load(100L)).thenReturn(Uni.createFrom().item(List.of(baggage)));
+
+        var fresh = resilientBaggageClient.getBaggage(100L).await().indefinitely();
+        assertFalse(fresh.stale);
+        assertEquals(List.of(baggage), fresh.baggage);
+
+        Mockito.when(baggageLoader.load(100L)).thenReturn(Uni.createFrom().failure(new RuntimeException("baggage service is down")));
+
+        var stale = resilientBaggageClient.getBaggage(100L).await().indefinitely();
+        assertTrue(stale.stale);
+        assertEquals(List.of(baggage), stale.baggage);
+    }
+
+    @Test
+    void shouldFailWhenNoBaggageIsKnown() {
+        Mockito.when(baggageLoader.load(200L)).thenReturn(Uni.createFrom().failure(new RuntimeException("baggage service is down")));
+
+        assertThrows(IllegalStateException.class, () -> resilientBaggageClient.getBaggage(200L).await().indefinitely());
+    }
+
+    @Test
+    void shouldServeLastSnapshotOfProjectionWhenNoLookupIsKnown() {
+        var baggage = new Baggage();
+        baggage.id = 3L;
+        baggage.passengerId = 300L;
+        Mockito.when(baggageProjection.hasSnapshot()).thenReturn(true);
+        Mockito.when(baggageProjection.getBaggageForPassenger(300L)).thenReturn(List.of(baggage));
+        Mockito.when(baggageLoader.load(300L)).thenReturn(Uni.createFrom().failure(new RuntimeException("baggage service is down")));
+
+        var stale = resilientBaggageClient.getBaggage(300L).await().indefinitely();
+        assertTrue(stale.stale);
+        assertEquals(List.of(baggage), stale.baggage);
+    }
+
+    @Test
+    void shouldRefreshStaleBaggageAtMostOncePerInterval() {
+        Mockito.when(baggageLoader.load(400L)).thenReturn(Uni.createFrom().item(List.of()));
+        resilientBaggageClient.getBaggage(400L).await().indefinitely();
+        Mockito.when(baggageLoader.load(400L)).thenReturn(Uni.createFrom().failure(new RuntimeException("baggage service is down")));
+
+        assertTrue(resilientBaggageClient.getBaggage(400L).await().indefinitely().stale);
+        assertTrue(resilientBaggageClient.getBaggage(400L).await().indefinitely().stale);
+
+        // the first lookup, two failed lookups and a single background refresh
+        Mockito.verify(baggageLoader, Mockito.times(4)).load(400L);
+    }
+}
@@ -0,0 +1,113 @@
+package cz.muni.fi.airportmanager.passengerservice.client;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRetryUntilCallSucceeds() {
+        var policy = new RetryPolicy("baggage-service", registry, 3, Duration.ofMillis(1), Duration.ofMillis(5), 0.1, 10);
+        var attempts = new AtomicInteger();
+
+        var result = policy.execute(() -> attempts.incrementAndGet() < 3
+                        ? Uni.createFrom().failure(new IOException("Connection reset"))
+                        : Uni.createFrom().item("ok"))
+                .await().indefinitely();
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, registry.counter("retry_policy_retries", "target", "baggage-service").count());
+    }
+
+    @Test
+    void shouldStopRetryingWhenBudgetIsSpent() {
+        var policy = new RetryPolicy("baggage-service", registry, 5, Duration.ofMillis(1), Duration.ofMillis(1), 0.1, 2);
+        var attempts = new AtomicInteger();
+
+        assertThrows(WebApplicationException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return Uni.createFrom().failure(new WebApplicationException(503));
+        }).await().indefinitely());
+
+        // the full bucket pays for two retries only
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, registry.counter("retry_policy_budget_exhausted", "target", "baggage-service").count());
+    }
+
+    @Test
+    void shouldNotRetryClientErrors() {
+        var policy = new RetryPolicy("baggage-service", registry, 3, Duration.ofMillis(1), Duration.ofMillis(1), 0.1, 10);
+        var attempts = new AtomicInteger();
+
+        assertThrows(WebApplicationException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            return Uni.createFrom().failure(new WebApplicationException(404));
+        }).await().indefinitely());
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, registry.counter("retry_policy_retries", "target", "baggage-service").count());
+    }
+
+    @Test
+    void shouldRetryOnlyTransientFailures() {
+        assertTrue(RetryPolicy.isTransient(new IOException("Connection refused")));
+        assertTrue(RetryPolicy.isTransient(new WebApplicationException(502)));
+        assertTrue(RetryPolicy.isTransient(Status.UNAVAILABLE.asRuntimeException()));
+        assertTrue(RetryPolicy.isTransient(Status.DEADLINE_EXCEEDED.asRuntimeException()));
+        assertFalse(RetryPolicy.isTransient(new WebApplicationException(400)));
+        assertFalse(RetryPolicy.isTransient(Status.INVALID_ARGUMENT.asRuntimeException()));
+        assertFalse(RetryPolicy.isTransient(new IllegalStateException("bug")));
+    }
+
+    @Test
+    void shouldResumeOnCallerContextAfterRetry() throws Exception {
+        var vertx = Vertx.vertx();
+        try {
+            var policy = new RetryPolicy("baggage-service", registry, 1, Duration.ofMillis(5), Duration.ofMillis(5), 0.1, 10);
+            var attempts = new AtomicInteger();
+            var context = vertx.getOrCreateContext();
+            var result = new CompletableFuture<Boolean>();
+
+            context.runOnContext(ignored -> policy.execute(() -> attempts.incrementAndGet() < 2
+                            ? Uni.createFrom().failure(new IOException("Connection reset"))
+                            : Uni.createFrom().item(Vertx.currentContext() == context))
+                    .subscribe().with(
+                            calledOnContext -> result.complete(calledOnContext && Vertx.currentContext() == context),
+                            result::completeExceptionally));
+
+            assertTrue(result.get(1, TimeUnit.SECONDS));
+            assertEquals(2, attempts.get());
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    void shouldKeepBackoffWithinExponentialCap() {
+        var policy = new RetryPolicy("baggage-service", registry, 3, Duration.ofMillis(100), Duration.ofMillis(300), 0.1, 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backoff(0).toMillis() <= 100);
+            assertTrue(policy.backoff(1).toMillis() <= 200);
+            assertTrue(policy.backoff(5).toMillis() <= 300);
+        }
+    }
+}
@@ -7,8 +7,11 @@ import io.quarkus.grpc.GrpcClient;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.vertx.RunOnVertxContext;
 import io.quarkus.test.vertx.UniAsserter;
+import io.smallrye.mutiny.Multi;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
@@ -25,4 +28,38 @@ class FlightCancellationServiceTest {
                     assertEquals(FlightCancellationResponseStatus.Cancelled, response.getStatus());
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    @RunOnVertxContext
+    void testCancelFlights(UniAsserter asserter) {
+        var requests = Multi.createFrom().items(1, 2, 3)
+                .map(id -> FlightCancellationRequest.newBuilder().setId(id).setReason("Storm").build());
+
+        asserter.assertThat(() -> flightCancellationStub.cancelFlights(requests).collect().asList(),
+                responses -> {
+                    assertEquals(3, responses.size());
+                    for (int i = 0; i < responses.size(); i++) {
+                        assertEquals(i + 1, responses.get(i).getId());
+                        assertEquals(FlightCancellationResponseStatus.Cancelled, responses.get(i).getStatus());
+                    }
+                });
+    }
+
+    @Test
+    @RunOnVertxContext
+    void testCancelFlightsWhenStreamStaysOpenPastBatchWindow(UniAsserter asserter) {
+        // Requests arrive slower than the batch window, so every batch is closed by the window timer
+        var requests = Multi.createFrom().ticks().every(Duration.ofMillis(250))
+                .select().first(3)
+                .map(tick -> FlightCancellationRequest.newBuilder().setId(tick.intValue() + 1).setReason("Storm").build());
+
+        asserter.assertThat(() -> flightCancellationStub.cancelFlights(requests).collect().asList(),
+                responses -> {
+                    assertEquals(3, responses.size());
+                    for (int i = 0; i < responses.size(); i++) {
+                        assertEquals(i + 1, responses.get(i).getId());
+                        assertEquals(FlightCancellationResponseStatus.Cancelled, responses.get(i).getStatus());
+                    }
+                });
+    }
+}
@@ -5,7 +5,9 @@ import cz.muni.fi.airportmanager.passengerservice.client.BaggageClientResource;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.eclipse.microprofile.health.HealthCheckResponse;
@@ -13,6 +15,7 @@ import org.mockito.Mockito;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
 @QuarkusTest
@@ -22,6 +25,13 @@ class HealthCheckTest {
     @RestClient
     BaggageClientResource baggageClientResource;
 
+    @Inject
+    BaggageServiceHealthCheck baggageServiceHealthCheck;
+
+    @AfterEach
+    void resetCallOutcomes() {
+        baggageServiceHealthCheck.reset();
+    }
 
     @Test
     @Disabled
@@ -29,6 +39,7 @@ class HealthCheckTest {
         Mockito.when(this.baggageClientResource.readinessCheck()).thenReturn(Uni.createFrom().item(
                 HealthCheckResponse.up("Baggage service is ready")
         ));
+        baggageServiceHealthCheck.probe().await().indefinitely();
 
         given()
                 .when().get("/q/health/ready")
@@ -42,6 +53,7 @@ class HealthCheckTest {
         Mockito.when(this.baggageClientResource.readinessCheck()).thenReturn(Uni.createFrom().item(
                 HealthCheckResponse.down("Baggage service is not ready")
         ));
+        baggageServiceHealthCheck.probe().await().indefinitely();
 
         given()
                 .when().get("/q/health/ready")
@@ -49,4 +61,21 @@ class HealthCheckTest {
                 .statusCode(503)
                 .body("status", is("DOWN"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testServiceShouldNotBeReadyWhenRecentCallsFail() {
+        Mockito.when(this.baggageClientResource.readinessCheck()).thenReturn(Uni.createFrom().item(
+                HealthCheckResponse.up("Baggage service is ready")
+        ));
+        baggageServiceHealthCheck.probe().await().indefinitely();
+
+        for (int i = 0; i < 20; i++) {
+            baggageServiceHealthCheck.observe(Uni.createFrom().failure(new RuntimeException("baggage service is down")))
+                    .onFailure().recoverWithNull()
+                    .await().indefinitely();
+        }
+
+        var response = baggageServiceHealthCheck.call().await().indefinitely();
+        assertEquals(HealthCheckResponse.Status.DOWN, response.getStatus());
+    }
+}
@@ -0,0 +1,87 @@
+package cz.muni.fi.airportmanager.passengerservice.kafka.consumer;
+
+import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStateChange;
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStatus;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaggageStateChangeConsumerTest {
+
+    @Test
+    void shouldKeepChangesOfOnePassengerInOneLaneInOrder() {
+        var lanes = BaggageStateChangeConsumer.lanes(List.of(
+                record(change(1L, 10L, BaggageStatus.CHECKED_IN)),
+                record(change(2L, 11L, BaggageStatus.CHECKED_IN)),
+                record(change(1L, 10L, BaggageStatus.CLAIMED))
+        ), 2, ignored -> false);
+
+        assertEquals(2, lanes.size());
+        var lane = lanes.stream().filter(candidate -> containsPassenger(candidate, 10L)).findFirst().orElseThrow();
+        assertEquals(List.of(
+                "Baggage state changed to CHECKED_IN for baggage 1",
+                "Baggage state changed to CLAIMED for baggage 1"
+        ), lane.stream().filter(notification -> notification.passengerId == 10L).map(notification -> notification.message).toList());
+        assertFalse(containsPassenger(lane, 11L));
+    }
+
+    @Test
+    void shouldSkipEmptyLanes() {
+        var lanes = BaggageStateChangeConsumer.lanes(List.of(
+                record(change(1L, 10L, BaggageStatus.CHECKED_IN))
+        ), 4, ignored -> false);
+
+        assertEquals(1, lanes.size());
+    }
+
+    @Test
+    void shouldDropRedeliveredEvents() {
+        var processed = change(1L, 10L, BaggageStatus.CHECKED_IN);
+        var repeated = change(2L, 10L, BaggageStatus.CHECKED_IN);
+
+        var lanes = BaggageStateChangeConsumer.lanes(List.of(
+                record(processed),
+                record(repeated),
+                record(repeated)
+        ), 1, processed.eventId::equals);
+
+        assertEquals(1, lanes.size());
+        assertEquals(List.of(repeated.eventId), lanes.get(0).stream().map(notification -> notification.eventId).toList());
+    }
+
+    @Test
+    void shouldEvictOldestEventsFromWindow() {
+        var window = new ProcessedEventWindow();
+        window.capacity = 2;
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var third = UUID.randomUUID();
+
+        window.addAll(List.of(first, second, third));
+
+        assertFalse(window.contains(first));
+        assertTrue(window.contains(second));
+        assertTrue(window.contains(third));
+    }
+
+    private static BaggageStateChange change(Long baggageId, Long passengerId, BaggageStatus status) {
+        var change = new BaggageStateChange(baggageId, passengerId, status);
+        change.eventId = UUID.randomUUID();
+        return change;
+    }
+
+    private static boolean containsPassenger(List<Notification> lane, long passengerId) {
+        return lane.stream().anyMatch(notification -> notification.passengerId == passengerId);
+    }
+
+    private static KafkaRecord<Long, BaggageStateChange> record(BaggageStateChange change) {
+        return KafkaRecord.of(change.passengerId, change);
+    }
+}
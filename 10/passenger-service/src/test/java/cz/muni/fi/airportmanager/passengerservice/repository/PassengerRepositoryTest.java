@@ -3,13 +3,19 @@ package cz.muni.fi.airportmanager.passengerservice.repository;
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
 import cz.muni.fi.airportmanager.passengerservice.model.NotificationDto;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.test.TestReactiveTransaction;
 import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.vertx.RunOnVertxContext;
 import io.quarkus.test.vertx.UniAsserter;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -33,7 +39,7 @@ class PassengerRepositoryTest {
                     return passengerRepository.persist(passenger);
                 })
                 .assertThat(
-                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId()),
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
                         notifications -> {
                             assertEquals(1, notifications.size());
                             assertEquals(notification.message, notifications.get(0).message);
@@ -53,11 +59,99 @@ class PassengerRepositoryTest {
                 .execute(() -> passengerRepository.persist(passenger))
                 .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), notification))
                 .assertThat(
-                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId()),
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
                         notifications -> assertTrue(notifications.stream().anyMatch(n -> n.message.equals(notification.message)))
                 );
     }
 
+    @Test
+    @TestReactiveTransaction
+    void shouldTrackUnreadNotificationsWithReadCursor(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        Notification personal = createTestNotification();
+        Notification broadcast = Notification.broadcast(passenger.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .execute(() -> passengerRepository.addNotificationForPassenger(passenger.getId(), personal))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), broadcast))
+                .assertThat(
+                        () -> passengerRepository.findUnreadNotificationsForPassenger(passenger.getId()),
+                        notifications -> assertEquals(2, notifications.size())
+                )
+                .execute(() -> passengerRepository.markNotificationsRead(passenger.getId(), personal.id))
+                .assertThat(
+                        () -> passengerRepository.findUnreadNotificationsForPassenger(passenger.getId()),
+                        notifications -> assertEquals(List.of(broadcast.message), notifications.stream().map(n -> n.message).toList())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldKeepNotificationCommittedLaterUnread(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        Notification late = Notification.broadcast(passenger.getFlightId(), "Gate changed");
+        Notification read = Notification.broadcast(passenger.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                // the late notification gets its id first, but commits only after the other one was read
+                .execute(() -> Notification.persist(late))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), read))
+                .execute(() -> passengerRepository.markNotificationsRead(passenger.getId(), read.id))
+                .execute(() -> {
+                    late.commitOrder = read.commitOrder + 1;
+                    return Panache.flush();
+                })
+                .assertThat(
+                        () -> passengerRepository.findUnreadNotificationsForPassenger(passenger.getId()),
+                        notifications -> assertEquals(List.of(late.message), notifications.stream().map(n -> n.message).toList())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldResetReadStateWhenAllNotificationsAreDeleted(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        Notification notification = Notification.broadcast(passenger.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), notification))
+                .execute(() -> passengerRepository.markNotificationsRead(passenger.getId(), notification.id))
+                .execute(() -> passengerRepository.deleteAllNotifications())
+                .assertThat(
+                        () -> passengerRepository.findById(passenger.getId()),
+                        found -> assertEquals(0, found.getReadUpTo())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldNotShowBroadcastsSentBeforePassengerJoined(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        Notification earlier = Notification.broadcast(passenger.getFlightId(), "Gate changed");
+        earlier.createdAt = new Date(passenger.getCreatedAt().getTime() - 60_000);
+        Notification later = Notification.broadcast(passenger.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), earlier))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), later))
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
+                        notifications -> assertEquals(List.of(later.message), notifications.stream().map(n -> n.message).toList())
+                )
+                .assertThat(
+                        () -> passengerRepository.findUnreadNotificationsForPassenger(passenger.getId()),
+                        notifications -> assertEquals(List.of(later.message), notifications.stream().map(n -> n.message).toList())
+                );
+    }
+
     @Test
     @TestReactiveTransaction
     void shouldAddNotificationForPassenger(UniAsserter asserter) {
@@ -70,7 +164,7 @@ class PassengerRepositoryTest {
                 .execute(() -> passengerRepository.persist(passenger))
                 .execute(() -> passengerRepository.addNotificationForPassenger(passenger.getId(), notification))
                 .assertThat(
-                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId()),
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
                         notifications -> assertTrue(notifications.stream().anyMatch(n -> n.message.equals(notification.message)))
                 );
     }
@@ -106,7 +200,7 @@ class PassengerRepositoryTest {
         asserter
                 .execute(() -> passengerRepository.persist(passenger))
                 .assertThat(
-                        passengerRepository::findNotificationsWithEmail,
+                        () -> passengerRepository.findNotificationsWithEmail(0, 0, 10),
                         notificationDtos -> {
                             assertEquals(1, notificationDtos.size());
                             NotificationDto dto = notificationDtos.get(0);
@@ -116,6 +210,107 @@ class PassengerRepositoryTest {
                 );
     }
 
+    @Test
+    @TestReactiveTransaction
+    void shouldPageNotificationsWithEmail(UniAsserter asserter) {
+
+        Passenger john = createTestPassenger();
+        Passenger jane = createTestPassenger();
+        jane.setEmail("janedoe@example.com");
+        Notification broadcast = Notification.broadcast(john.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(john, jane))
+                .execute(() -> passengerRepository.addNotificationByFlightId(john.getFlightId(), broadcast))
+                .assertThat(
+                        () -> passengerRepository.findNotificationsWithEmail(0, 0, 1),
+                        page -> {
+                            assertEquals(1, page.size());
+                            assertEquals(john.getEmail(), page.get(0).email);
+                        }
+                )
+                .assertThat(
+                        () -> passengerRepository.findNotificationsWithEmail(broadcast.id, john.getId(), 10),
+                        page -> {
+                            assertEquals(1, page.size());
+                            assertEquals(jane.getEmail(), page.get(0).email);
+                        }
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldAddNotificationsForSeveralPassengers(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        var eventId = UUID.randomUUID();
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .execute(() -> passengerRepository.addNotificationsForPassengers(List.of(
+                        baggageNotification(passenger.getId(), "Baggage checked in", eventId),
+                        baggageNotification(passenger.getId(), "Baggage claimed", UUID.randomUUID()),
+                        baggageNotification(-1L, "Baggage lost", UUID.randomUUID())
+                )))
+                // a redelivered event is not stored again
+                .execute(() -> passengerRepository.addNotificationsForPassengers(List.of(
+                        baggageNotification(passenger.getId(), "Baggage checked in", eventId)
+                )))
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
+                        notifications -> assertEquals(List.of("Baggage checked in", "Baggage claimed"), notifications.stream().map(n -> n.message).toList())
+                )
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(-1L, 0, 100),
+                        notifications -> assertTrue(notifications.isEmpty())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldNotStoreRedeliveredBroadcastTwice(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        var eventId = UUID.randomUUID();
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .assertThat(
+                        () -> passengerRepository.addNotificationsByFlightIds(List.of(cancellation(passenger.getFlightId(), eventId))),
+                        notified -> assertEquals(1L, notified)
+                )
+                .assertThat(
+                        () -> passengerRepository.addNotificationsByFlightIds(List.of(cancellation(passenger.getFlightId(), eventId))),
+                        notified -> assertEquals(0L, notified)
+                )
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
+                        notifications -> assertEquals(1, notifications.size())
+                );
+    }
+
+    @Test
+    @TestReactiveTransaction
+    void shouldPageNotificationsForPassenger(UniAsserter asserter) {
+
+        Passenger passenger = createTestPassenger();
+        Notification first = createTestNotification();
+        Notification second = Notification.broadcast(passenger.getFlightId(), "Flight delayed");
+
+        asserter
+                .execute(() -> passengerRepository.persist(passenger))
+                .execute(() -> passengerRepository.addNotificationForPassenger(passenger.getId(), first))
+                .execute(() -> passengerRepository.addNotificationByFlightId(passenger.getFlightId(), second))
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 1),
+                        notifications -> assertEquals(List.of(first.message), notifications.stream().map(n -> n.message).toList())
+                )
+                .assertThat(
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), first.id, 1),
+                        notifications -> assertEquals(List.of(second.message), notifications.stream().map(n -> n.message).toList())
+                );
+    }
+
     @Test
     @TestReactiveTransaction
     void shouldHandleNoNotificationsForPassenger(UniAsserter asserter) {
@@ -125,7 +320,7 @@ class PassengerRepositoryTest {
         asserter
                 .execute(() -> passengerRepository.persist(passenger))
                 .assertThat(
-                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId()),
+                        () -> passengerRepository.findNotificationsForPassenger(passenger.getId(), 0, 100),
                         notifications -> assertEquals(0, notifications.size())
                 );
     }
@@ -135,7 +330,7 @@ class PassengerRepositoryTest {
     void shouldHandleInvalidPassengerIdForNotifications(UniAsserter asserter) {
 
         asserter.assertThat(
-                () -> passengerRepository.findNotificationsForPassenger(-1L),
+                () -> passengerRepository.findNotificationsForPassenger(-1L, 0, 100),
                 notifications -> assertEquals(0, notifications.size())
         );
     }
@@ -149,7 +344,7 @@ class PassengerRepositoryTest {
         asserter
                 .execute(() -> passengerRepository.addNotificationByFlightId(-1L, notification))
                 .assertThat(
-                        () -> passengerRepository.findNotificationsWithEmail(),
+                        () -> passengerRepository.findNotificationsWithEmail(0, 0, 10),
                         notifications -> assertEquals(0, notifications.size())
                 );
     }
@@ -171,7 +366,7 @@ class PassengerRepositoryTest {
 
         asserter
                 .assertThat(
-                        passengerRepository::findNotificationsWithEmail,
+                        () -> passengerRepository.findNotificationsWithEmail(0, 0, 10),
                         notifications -> assertEquals(0, notifications.size())
                 );
     }
@@ -196,13 +391,35 @@ class PassengerRepositoryTest {
 
         asserter
                 .execute(() -> passengerRepository.persist(passenger))
-                .execute(() -> passengerRepository.deleteById(passenger.getId()))
+                .execute(() -> passengerRepository.deletePassenger(passenger.getId()))
                 .assertThat(
                         () -> passengerRepository.findById(passenger.getId()),
                         Assertions::assertNull
                 );
     }
 
+    @Test
+    @RunOnVertxContext
+    void shouldDeletePassengerWithNotificationsFromNewSession(UniAsserter asserter) {
+
+        // Every step runs in its own session, so the notifications are not loaded when the passenger is deleted
+        Passenger passenger = createTestPassenger();
+        Notification notification = createTestNotification();
+
+        asserter
+                .execute(() -> Panache.withTransaction(() -> passengerRepository.persist(passenger)))
+                .execute(() -> Panache.withTransaction(() -> passengerRepository.addNotificationForPassenger(passenger.getId(), notification)))
+                .assertTrue(() -> passengerRepository.deletePassenger(passenger.getId()))
+                .assertThat(
+                        () -> Panache.withSession(() -> passengerRepository.findById(passenger.getId())),
+                        Assertions::assertNull
+                )
+                .assertEquals(
+                        () -> Panache.withSession(() -> Notification.count("passengerId", passenger.getId())),
+                        0L
+                );
+    }
+
     private Passenger createTestPassenger() {
         Passenger passenger = new Passenger();
         passenger.setFirstName("John");
@@ -212,6 +429,20 @@ class PassengerRepositoryTest {
         return passenger;
     }
 
+    private Notification baggageNotification(Long passengerId, String message, UUID eventId) {
+        Notification notification = new Notification();
+        notification.passengerId = passengerId;
+        notification.message = message;
+        notification.eventId = eventId;
+        return notification;
+    }
+
+    private Notification cancellation(Long flightId, UUID eventId) {
+        Notification notification = Notification.broadcast(flightId, "Your flight has been cancelled");
+        notification.eventId = eventId;
+        return notification;
+    }
+
     private Notification createTestNotification() {
         Notification notification = new Notification();
         notification.message = "Test notification message";
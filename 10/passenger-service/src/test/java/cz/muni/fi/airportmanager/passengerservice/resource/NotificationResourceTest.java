@@ -1,18 +1,16 @@
 package cz.muni.fi.airportmanager.passengerservice.resource;
 
-import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.model.NotificationDto;
 import cz.muni.fi.airportmanager.passengerservice.service.NotificationService;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
 import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.List;
-
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
 
@@ -26,7 +24,7 @@ class NotificationResourceTest {
 
     @Test
     void shouldGetEmptyList() {
-        Mockito.when(notificationService.listAll()).thenReturn(Uni.createFrom().item(List.of()));
+        Mockito.when(notificationService.list(0, 0, Long.MAX_VALUE)).thenReturn(Multi.createFrom().empty());
 
         given().when()
                 .get()
@@ -38,7 +36,7 @@ class NotificationResourceTest {
     @Test
     void shouldGetNotifications() {
         var notification = createNotificationDto();
-        Mockito.when(notificationService.listAll()).thenReturn(Uni.createFrom().item(List.of(notification)));
+        Mockito.when(notificationService.list(0, 0, Long.MAX_VALUE)).thenReturn(Multi.createFrom().items(notification));
 
         given().when()
                 .get()
@@ -47,6 +45,32 @@ class NotificationResourceTest {
                 .body("size()", is(1));
     }
 
+    @Test
+    void shouldGetPageOfNotifications() {
+        var notification = createNotificationDto();
+        Mockito.when(notificationService.list(5, 7, 10)).thenReturn(Multi.createFrom().items(notification));
+
+        given().queryParam("after", 5)
+                .queryParam("afterPassenger", 7)
+                .queryParam("limit", 10)
+                .when()
+                .get()
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .body("size()", is(1))
+                .body("[0].passengerId", is(1));
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        given().queryParam("limit", 0)
+                .when()
+                .get()
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        Mockito.verifyNoInteractions(notificationService);
+    }
 
     @Test
     void shouldDeleteAllNotifications() {
@@ -63,6 +87,7 @@ class NotificationResourceTest {
         notificationDto.id = 1L;
         notificationDto.message = "Test message";
         notificationDto.email = "test@test.com";
+        notificationDto.passengerId = 1L;
         return notificationDto;
     }
 }
\ No newline at end of file
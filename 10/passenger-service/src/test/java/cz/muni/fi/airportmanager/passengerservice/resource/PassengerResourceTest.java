@@ -3,6 +3,8 @@ package cz.muni.fi.airportmanager.passengerservice.resource;
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
 import cz.muni.fi.airportmanager.passengerservice.model.CreatePassengerDto;
+import cz.muni.fi.airportmanager.passengerservice.model.PassengerDto;
+import cz.muni.fi.airportmanager.passengerservice.model.PassengerWithBaggageDto;
 import cz.muni.fi.airportmanager.passengerservice.service.PassengerService;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
@@ -11,7 +13,6 @@ import io.smallrye.mutiny.Uni;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
-import java.util.Collections;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
@@ -50,8 +51,8 @@ class PassengerResourceTest {
     @Test
     void shouldCreatePassenger() {
         CreatePassengerDto testPassenger = createTestPassengerDto();
-        Passenger responsePassenger = Passenger.fromDto(testPassenger);
-        responsePassenger.setId(1L);
+        PassengerDto responsePassenger = Passenger.fromDto(testPassenger).toDto();
+        responsePassenger.id = 1L;
         Mockito.when(this.passengerService.createPassenger(Mockito.any(CreatePassengerDto.class))).thenReturn(Uni.createFrom().item(responsePassenger));
 
 
@@ -61,20 +62,20 @@ class PassengerResourceTest {
                 .post()
                 .then()
                 .statusCode(201)
-                .body("email", equalTo(responsePassenger.getEmail()))
-                .body("id", equalTo(responsePassenger.getId().intValue()));
+                .body("email", equalTo(responsePassenger.email))
+                .body("id", equalTo(responsePassenger.id.intValue()));
     }
 
     @Test
     void shouldGetExistingPassenger() {
-        Passenger testPassenger = createPassenger();
-        Mockito.when(this.passengerService.getPassenger(testPassenger.getId())).thenReturn(Uni.createFrom().item(testPassenger));
+        PassengerDto testPassenger = createPassenger();
+        Mockito.when(this.passengerService.getPassenger(testPassenger.id)).thenReturn(Uni.createFrom().item(testPassenger));
 
         given().when()
-                .get("/" + testPassenger.getId())
+                .get("/" + testPassenger.id)
                 .then()
                 .statusCode(200)
-                .body("id", equalTo(testPassenger.getId().intValue()));
+                .body("id", equalTo(testPassenger.id.intValue()));
     }
 
     @Test
@@ -89,11 +90,11 @@ class PassengerResourceTest {
 
     @Test
     void shouldDeleteExistingPassenger() {
-        Passenger testPassenger = createPassenger();
-        Mockito.when(this.passengerService.deletePassenger(testPassenger.getId())).thenReturn(Uni.createFrom().item(true));
+        PassengerDto testPassenger = createPassenger();
+        Mockito.when(this.passengerService.deletePassenger(testPassenger.id)).thenReturn(Uni.createFrom().item(true));
 
         given().when()
-                .delete("/" + testPassenger.getId())
+                .delete("/" + testPassenger.id)
                 .then()
                 .statusCode(200);
     }
@@ -138,7 +139,7 @@ class PassengerResourceTest {
     void shouldGetPassengersForFlight() {
 
         Long flightId = 1L;
-        List<Passenger> passengers = List.of(createPassenger());
+        List<PassengerDto> passengers = List.of(createPassenger());
         Mockito.when(passengerService.getPassengersForFlight(flightId)).thenReturn(Uni.createFrom().item(passengers));
 
         given().when()
@@ -146,8 +147,8 @@ class PassengerResourceTest {
                 .then()
                 .statusCode(200)
                 .body("size()", is(1))
-                .body("[0].id", equalTo(passengers.get(0).getId().intValue()))
-                .body("[0].email", equalTo(passengers.get(0).getEmail()));
+                .body("[0].id", equalTo(passengers.get(0).id.intValue()))
+                .body("[0].email", equalTo(passengers.get(0).email));
     }
 
     @Test
@@ -163,12 +164,31 @@ class PassengerResourceTest {
                 .body(is("[]"));
     }
 
+    @Test
+    void shouldGetPassengersWithBaggageForFlight() {
+
+        Long flightId = 1L;
+        var passenger = new PassengerWithBaggageDto();
+        passenger.id = 1L;
+        passenger.flightId = flightId;
+        passenger.baggage = List.of();
+        Mockito.when(passengerService.getPassengersWithBaggageForFlight(flightId)).thenReturn(Uni.createFrom().item(List.of(passenger)));
+
+        given().when()
+                .get("/flight/" + flightId + "/with-baggage")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].id", equalTo(1))
+                .body("[0].baggage.size()", is(0));
+    }
+
     @Test
     void shouldGetNotificationsForPassenger() {
 
         Long passengerId = 1L;
         List<Notification> notifications = List.of(createNotification());
-        Mockito.when(passengerService.findNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(notifications));
+        Mockito.when(passengerService.findNotificationsForPassenger(passengerId, 0, Integer.MAX_VALUE)).thenReturn(Uni.createFrom().item(notifications));
 
         given().when()
                 .get("/" + passengerId + "/notifications")
@@ -182,7 +202,7 @@ class PassengerResourceTest {
     void shouldGetEmptyListOfNotificationsForPassengerWhenNoNotifications() {
 
         Long passengerId = 1L;
-        Mockito.when(passengerService.findNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(List.of()));
+        Mockito.when(passengerService.findNotificationsForPassenger(passengerId, 0, Integer.MAX_VALUE)).thenReturn(Uni.createFrom().item(List.of()));
 
         given().when()
                 .get("/" + passengerId + "/notifications")
@@ -195,7 +215,7 @@ class PassengerResourceTest {
     void shouldNotFindNotificationsForNonexistentPassenger() {
 
         Long invalidPassengerId = 99L;
-        Mockito.when(passengerService.findNotificationsForPassenger(invalidPassengerId)).thenReturn(Uni.createFrom().item(List.of()));
+        Mockito.when(passengerService.findNotificationsForPassenger(invalidPassengerId, 0, Integer.MAX_VALUE)).thenReturn(Uni.createFrom().item(List.of()));
 
         given().when()
                 .get("/" + invalidPassengerId + "/notifications")
@@ -204,6 +224,62 @@ class PassengerResourceTest {
                 .body(is("[]"));
     }
 
+    @Test
+    void shouldGetPageOfNotificationsForPassenger() {
+
+        Long passengerId = 1L;
+        Mockito.when(passengerService.findNotificationsForPassenger(passengerId, 5L, 10)).thenReturn(Uni.createFrom().item(List.of(createNotification())));
+
+        given().when()
+                .queryParam("after", 5)
+                .queryParam("limit", 10)
+                .get("/" + passengerId + "/notifications")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1));
+    }
+
+    @Test
+    void shouldRejectNonPositiveNotificationLimit() {
+        given().when()
+                .queryParam("limit", 0)
+                .get("/1/notifications")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void shouldGetUnreadNotificationsForPassenger() {
+
+        Long passengerId = 1L;
+        Mockito.when(passengerService.findUnreadNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(List.of(createNotification())));
+
+        given().when()
+                .get("/" + passengerId + "/notifications/unread")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1));
+    }
+
+    @Test
+    void shouldMarkNotificationsRead() {
+
+        Mockito.when(passengerService.markNotificationsRead(1L, 5L)).thenReturn(Uni.createFrom().item(true));
+        Mockito.when(passengerService.markNotificationsRead(99L, 5L)).thenReturn(Uni.createFrom().item(false));
+
+        given().queryParam("upTo", 5)
+                .when()
+                .put("/1/notifications/read")
+                .then()
+                .statusCode(200);
+
+        given().queryParam("upTo", 5)
+                .when()
+                .put("/99/notifications/read")
+                .then()
+                .statusCode(404);
+    }
+
     // Helper methods
     private Notification createNotification() {
         Notification notification = new Notification();
@@ -212,14 +288,13 @@ class PassengerResourceTest {
     }
 
 
-    private Passenger createPassenger() {
-        Passenger passenger = new Passenger();
-        passenger.setId(1L);
-        passenger.setFirstName("John");
-        passenger.setLastName("Doe");
-        passenger.setNotifications(Collections.emptyList());
-        passenger.setEmail("johndoe@gmail.com");
-        passenger.setFlightId(1L);
+    private PassengerDto createPassenger() {
+        PassengerDto passenger = new PassengerDto();
+        passenger.id = 1L;
+        passenger.firstName = "John";
+        passenger.lastName = "Doe";
+        passenger.email = "johndoe@gmail.com";
+        passenger.flightId = 1L;
         return passenger;
     }
 
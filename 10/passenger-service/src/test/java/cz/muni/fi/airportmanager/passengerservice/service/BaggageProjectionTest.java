@@ -0,0 +1,86 @@
+package cz.muni.fi.airportmanager.passengerservice.service;
+
+import cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStateChange;
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
+import cz.muni.fi.airportmanager.passengerservice.model.BaggageStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaggageProjectionTest {
+
+    @Test
+    void shouldBeReadyOnlyAfterSnapshot() {
+        var projection = projection();
+        projection.apply(change(1L, 10L, BaggageStatus.CHECKED_IN, 0));
+        assertFalse(projection.isReady());
+
+        projection.load(List.of(baggage(2L, 10L, BaggageStatus.CHECKED_IN, 0)));
+
+        assertTrue(projection.isReady());
+        assertEquals(List.of(1L, 2L), projection.getBaggageForPassenger(10L).stream().map(baggage -> baggage.id).toList());
+        assertTrue(projection.getBaggageForPassenger(11L).isEmpty());
+    }
+
+    @Test
+    void shouldKeepNewestStateOfBaggage() {
+        var projection = projection();
+        projection.apply(change(1L, 10L, BaggageStatus.CLAIMED, 1));
+
+        // snapshot taken before the claim arrives after it
+        projection.load(List.of(baggage(1L, 10L, BaggageStatus.CHECKED_IN, 0)));
+        assertEquals(BaggageStatus.CLAIMED, projection.getBaggageForPassenger(10L).get(0).status);
+
+        projection.apply(change(1L, 10L, BaggageStatus.LOST, 2));
+        assertEquals(BaggageStatus.LOST, projection.getBaggageForPassenger(10L).get(0).status);
+        assertEquals(1, projection.getBaggageForPassenger(10L).size());
+    }
+
+    @Test
+    void shouldDropBaggageMissingFromNewerSnapshot() {
+        var projection = projection();
+        projection.load(List.of(baggage(1L, 10L, BaggageStatus.CHECKED_IN, 0), baggage(2L, 10L, BaggageStatus.CHECKED_IN, 0)));
+
+        projection.load(List.of(baggage(2L, 10L, BaggageStatus.CHECKED_IN, 0)));
+
+        assertEquals(List.of(2L), projection.getBaggageForPassenger(10L).stream().map(baggage -> baggage.id).toList());
+    }
+
+    @Test
+    void shouldNotBeReadyWithStaleSnapshot() {
+        var projection = projection();
+        projection.maxStaleness = Duration.ofMillis(-1);
+
+        projection.load(List.of());
+
+        assertFalse(projection.isReady());
+    }
+
+    private static BaggageProjection projection() {
+        var projection = new BaggageProjection();
+        projection.maxStaleness = Duration.ofMinutes(3);
+        return projection;
+    }
+
+    private static BaggageStateChange change(Long baggageId, Long passengerId, BaggageStatus status, long sequence) {
+        var change = new BaggageStateChange(baggageId, passengerId,
+                cz.muni.fi.airportmanager.passengerservice.kafka.model.BaggageStatus.valueOf(status.name()));
+        change.sequence = sequence;
+        change.weight = 20;
+        return change;
+    }
+
+    private static Baggage baggage(Long id, Long passengerId, BaggageStatus status, long stateSequence) {
+        var baggage = new Baggage();
+        baggage.id = id;
+        baggage.passengerId = passengerId;
+        baggage.status = status;
+        baggage.stateSequence = stateSequence;
+        return baggage;
+    }
+}
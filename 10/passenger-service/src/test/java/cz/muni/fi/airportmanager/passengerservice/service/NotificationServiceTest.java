@@ -37,9 +37,10 @@ class NotificationServiceTest {
 //        Mock active record class
         asserter.execute(() -> PanacheMock.mock(Notification.class));
         asserter.execute(() -> Mockito.when(Notification.listAll()).thenReturn(Uni.createFrom().item(List.of(notification))));
-        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsWithEmail()).thenReturn(Uni.createFrom().item(List.of(notificationDto))));
+        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsWithEmail(Mockito.eq(0L), Mockito.eq(0L), Mockito.anyInt()))
+                .thenReturn(Uni.createFrom().item(List.of(notificationDto))));
 
-        asserter.assertThat(() -> notificationService.listAll(),
+        asserter.assertThat(() -> notificationService.list(0, 0, Long.MAX_VALUE).collect().asList(),
                 notificationList -> {
                     assertNotNull(notificationList);
                     assertFalse(notificationList.isEmpty());
@@ -48,12 +49,25 @@ class NotificationServiceTest {
                 });
     }
 
+    @Test
+    @TestReactiveTransaction
+    void shouldListPageOfNotifications(UniAsserter asserter) {
+        var first = createNotificationDto();
+        var second = createNotificationDto();
+        second.passengerId = 2L;
+        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsWithEmail(1L, 1L, 2))
+                .thenReturn(Uni.createFrom().item(List.of(first, second))));
+
+        asserter.assertThat(() -> notificationService.list(1, 1, 2).collect().asList(),
+                notificationList -> assertEquals(List.of(first, second), notificationList));
+        asserter.execute(() -> Mockito.verify(passengerRepository, Mockito.times(1))
+                .findNotificationsWithEmail(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt()));
+    }
 
     @Test
     @TestReactiveTransaction
     void shouldDeleteAllNotifications(UniAsserter asserter) {
-        asserter.execute(() -> PanacheMock.mock(Notification.class));
-        asserter.execute(() -> Mockito.when(Notification.deleteAll()).thenReturn(Uni.createFrom().item(1L)));
+        asserter.execute(() -> Mockito.when(passengerRepository.deleteAllNotifications()).thenReturn(Uni.createFrom().item(1L)));
 
         asserter.assertThat(() -> notificationService.deleteAll(),
                 deletedCount -> {
@@ -74,6 +88,7 @@ class NotificationServiceTest {
         notificationDto.id = 1L;
         notificationDto.message = "Test message";
         notificationDto.email = "test@test.com";
+        notificationDto.passengerId = 1L;
         return notificationDto;
     }
 }
@@ -1,15 +1,19 @@
 package cz.muni.fi.airportmanager.passengerservice.service;
 
+import cz.muni.fi.airportmanager.passengerservice.client.BaggageClientResource;
 import cz.muni.fi.airportmanager.passengerservice.entity.Notification;
 import cz.muni.fi.airportmanager.passengerservice.entity.Passenger;
+import cz.muni.fi.airportmanager.passengerservice.model.Baggage;
 import cz.muni.fi.airportmanager.passengerservice.model.CreatePassengerDto;
 import cz.muni.fi.airportmanager.passengerservice.repository.PassengerRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.vertx.RunOnVertxContext;
 import io.quarkus.test.vertx.UniAsserter;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -19,6 +23,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
@@ -27,6 +32,10 @@ class PassengerServiceTest {
     @InjectMock
     PassengerRepository passengerRepository;
 
+    @InjectMock
+    @RestClient
+    BaggageClientResource baggageClientResource;
+
     @Inject
     PassengerService passengerService;
 
@@ -43,7 +52,7 @@ class PassengerServiceTest {
                     assertNotNull(passengers);
                     assertFalse(passengers.isEmpty());
                     assertEquals(1, passengers.size());
-                    assertEquals(passenger, passengers.get(0));
+                    assertEquals(passenger.toDto(), passengers.get(0));
                 }
         );
     }
@@ -59,7 +68,7 @@ class PassengerServiceTest {
                 () -> passengerService.getPassenger(passenger.getId()),
                 found -> {
                     assertNotNull(found);
-                    assertEquals(passenger, found);
+                    assertEquals(passenger.toDto(), found);
                 }
         );
     }
@@ -78,11 +87,61 @@ class PassengerServiceTest {
                     assertNotNull(passengers);
                     assertFalse(passengers.isEmpty());
                     assertEquals(1, passengers.size());
-                    assertEquals(passenger, passengers.get(0));
+                    assertEquals(passenger.toDto(), passengers.get(0));
+                }
+        );
+    }
+
+    @Test
+    @RunOnVertxContext
+    void shouldGetPassengersWithBaggageForFlightInOneCall(UniAsserter asserter) {
+
+        var passenger = createTestPassenger();
+        var withoutBaggage = createTestPassenger();
+        withoutBaggage.setId(2L);
+        var baggage = new Baggage();
+        baggage.id = 10L;
+        baggage.passengerId = passenger.getId();
+        Long flightId = 123L;
+        asserter.execute(() -> {
+            Mockito.when(passengerRepository.findPassengersForFlight(flightId)).thenReturn(Uni.createFrom().item(List.of(passenger, withoutBaggage)));
+            Mockito.when(baggageClientResource.getBaggageForPassengerIdsWithAuth(List.of(passenger.getId(), 2L))).thenReturn(Uni.createFrom().item(List.of(baggage)));
+        });
+
+        asserter.assertThat(
+                () -> passengerService.getPassengersWithBaggageForFlight(flightId),
+                passengers -> {
+                    assertEquals(2, passengers.size());
+                    assertEquals(passenger.getId(), passengers.get(0).id);
+                    assertEquals(List.of(baggage), passengers.get(0).baggage);
+                    assertTrue(passengers.get(1).baggage.isEmpty());
+                    Mockito.verify(baggageClientResource, Mockito.times(1)).getBaggageForPassengerIdsWithAuth(Mockito.anyList());
                 }
         );
     }
 
+    @Test
+    @RunOnVertxContext
+    void shouldCallBaggageServiceAfterTransactionEnds(UniAsserter asserter) {
+
+        var passenger = createTestPassenger();
+        Long flightId = 123L;
+        asserter.execute(() -> {
+            Mockito.when(passengerRepository.findPassengersForFlight(flightId)).thenReturn(Uni.createFrom().item(List.of(passenger)));
+            Mockito.when(baggageClientResource.getBaggageForPassengerIdsWithAuth(List.of(passenger.getId())))
+                    .thenAnswer(invocation -> Panache.currentTransaction()
+                            .onItem().transform(transaction -> {
+                                assertNull(transaction);
+                                return List.<Baggage>of();
+                            }));
+        });
+
+        asserter.assertThat(
+                () -> passengerService.getPassengersWithBaggageForFlight(flightId),
+                passengers -> assertEquals(1, passengers.size())
+        );
+    }
+
     @Test
     @RunOnVertxContext
     void shouldCreatePassenger(UniAsserter asserter) {
@@ -95,7 +154,7 @@ class PassengerServiceTest {
                 () -> passengerService.createPassenger(passengerDto),
                 created -> {
                     assertNotNull(created);
-                    assertEquals(passenger, created);
+                    assertEquals(passenger.toDto(), created);
                 }
         );
     }
@@ -105,7 +164,7 @@ class PassengerServiceTest {
     void shouldDeleteExistingPassenger(UniAsserter asserter) {
 
         Long passengerId = 1L;
-        asserter.execute(() -> Mockito.when(passengerRepository.deleteById(passengerId)).thenReturn(Uni.createFrom().item(true)));
+        asserter.execute(() -> Mockito.when(passengerRepository.deletePassenger(passengerId)).thenReturn(Uni.createFrom().item(true)));
 
         asserter.assertTrue(
                 () -> passengerService.deletePassenger(passengerId)
@@ -116,7 +175,7 @@ class PassengerServiceTest {
     @RunOnVertxContext
     void shouldDeleteAllPassengers(UniAsserter asserter) {
 
-        asserter.execute(() -> Mockito.when(passengerRepository.deleteAll()).thenReturn(Uni.createFrom().item(1L)));
+        asserter.execute(() -> Mockito.when(passengerRepository.deleteAllPassengers()).thenReturn(Uni.createFrom().item(1L)));
 
         asserter.assertThat(
                 () -> passengerService.deleteAllPassengers(),
@@ -136,12 +195,12 @@ class PassengerServiceTest {
         var notification = createNotification();
 
         // Mock the behavior of the repository
-        asserter.execute(() -> Mockito.when(passengerRepository.addNotificationByFlightId(flightId, notification)).thenReturn(Uni.createFrom().voidItem()));
-        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(List.of(notification))));
+        asserter.execute(() -> Mockito.when(passengerRepository.addNotificationByFlightId(flightId, notification)).thenReturn(Uni.createFrom().item(1L)));
+        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId, 0, 100)).thenReturn(Uni.createFrom().item(List.of(notification))));
 
         asserter.execute(() -> passengerService.addNotificationByFlightId(flightId, notification))
                 .assertThat(
-                () -> passengerService.findNotificationsForPassenger(passengerId),
+                () -> passengerService.findNotificationsForPassenger(passengerId, 0, 100),
                 notifications -> assertTrue(notifications.stream().anyMatch(n -> n.message.equals(notification.message)))
         );
     }
@@ -154,11 +213,11 @@ class PassengerServiceTest {
         var notification = createNotification();
         // Mock the behavior of the repository
         asserter.execute(() -> Mockito.when(passengerRepository.addNotificationForPassenger(passengerId, notification)).thenReturn(Uni.createFrom().voidItem()));
-        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(List.of(notification))));
+        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId, 0, 100)).thenReturn(Uni.createFrom().item(List.of(notification))));
 
         asserter.execute(() -> passengerService.addNotificationForPassenger(passengerId, notification))
                 .assertThat(
-                () -> passengerService.findNotificationsForPassenger(passengerId),
+                () -> passengerService.findNotificationsForPassenger(passengerId, 0, 100),
                 notifications -> assertTrue(notifications.stream().anyMatch(n -> n.message.equals(notification.message)))
         );
     }
@@ -171,10 +230,10 @@ class PassengerServiceTest {
         var notification = createNotification();
         List<Notification> testNotifications = List.of(notification);
         // Mock the behavior of the repository
-        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId)).thenReturn(Uni.createFrom().item(testNotifications)));
+        asserter.execute(() -> Mockito.when(passengerRepository.findNotificationsForPassenger(passengerId, 0, 100)).thenReturn(Uni.createFrom().item(testNotifications)));
 
         asserter.assertThat(
-                () -> passengerService.findNotificationsForPassenger(passengerId),
+                () -> passengerService.findNotificationsForPassenger(passengerId, 0, 100),
                 notifications -> {
                     assertNotNull(notifications);
                     assertFalse(notifications.isEmpty());
@@ -202,7 +261,7 @@ class PassengerServiceTest {
     void shouldNotDeleteNonExistentPassenger(UniAsserter asserter) {
 
         Long invalidId = -1L;
-        asserter.execute(() -> Mockito.when(passengerRepository.deleteById(invalidId)).thenReturn(Uni.createFrom().item(false)));
+        asserter.execute(() -> Mockito.when(passengerRepository.deletePassenger(invalidId)).thenReturn(Uni.createFrom().item(false)));
 
         asserter.assertFalse(
                 () -> passengerService.deletePassenger(invalidId)